@@ -22,6 +22,26 @@ interface PendingAdvertiser {
   createdAt: string;
 }
 
+// Pending list is keyset-paged; follow X-Next-Cursor until the last page
+const PAGE_SIZE = 200;
+
+const fetchAllPendingAdvertisers = async (): Promise<PendingAdvertiser[]> => {
+  const advertisers: PendingAdvertiser[] = [];
+  let after: string | undefined;
+  do {
+    const res = await apiClient.get<PendingAdvertiser[]>('/admin/advertisers/pending', {
+      params: { limit: PAGE_SIZE, ...(after ? { after } : {}) },
+    });
+    if (res.status >= 400) {
+      throw new Error(`Pending advertisers request failed with status ${res.status}`);
+    }
+    advertisers.push(...res.data);
+    const next = res.headers['x-next-cursor'];
+    after = typeof next === 'string' && next ? next : undefined;
+  } while (after);
+  return advertisers;
+};
+
 export default function AdminAnalyticsScreen() {
   const { user } = useAuthStore();
   const [analytics, setAnalytics] = useState<AdminAnalytics | null>(null);
@@ -35,12 +55,12 @@ export default function AdminAnalyticsScreen() {
   const loadData = async () => {
     try {
       setLoading(true);
-      const [analyticsRes, pendingRes] = await Promise.all([
+      const [analyticsRes, pending] = await Promise.all([
         apiClient.get('/admin/analytics'),
-        apiClient.get('/admin/advertisers/pending')
+        fetchAllPendingAdvertisers()
       ]);
       setAnalytics(analyticsRes.data);
-      setPendingAdvertisers(pendingRes.data);
+      setPendingAdvertisers(pending);
     } catch (error) {
       console.error('Error loading analytics:', error);
     } finally {
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Measures cold start: wall time from launching a command until its first
+# successful HTTP response, over several runs.
+#
+#   scripts/startup-time.sh [--runs N] [--url URL] -- <command...>
+#
+#   scripts/startup-time.sh -- java -jar target/backend-0.0.1-SNAPSHOT.jar
+#   scripts/startup-time.sh --runs 10 -- docker run --rm -p 8080:8080 cursor-raffle-backend:fast-start
+#
+# The default URL is the readiness probe Kubernetes uses, so the number is
+# how long a new pod takes before it can receive traffic.
+set -euo pipefail
+
+runs=5
+url="http://localhost:8080/actuator/health/readiness"
+while [[ $# -gt 0 ]]; do
+  case "$1" in
+    --runs) runs="$2"; shift 2 ;;
+    --url) url="$2"; shift 2 ;;
+    --) shift; break ;;
+    *) echo "Unknown option: $1" >&2; exit 2 ;;
+  esac
+done
+if [[ $# -eq 0 ]]; then
+  echo "Usage: $0 [--runs N] [--url URL] -- <command...>" >&2
+  exit 2
+fi
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+results=()
+for ((run = 1; run <= runs; run++)); do
+  log=$(mktemp)
+  start=$(now_ms)
+  "$@" >"$log" 2>&1 &
+  pid=$!
+  until curl -fs -o /dev/null "$url"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Command exited before answering; log:" >&2
+      cat "$log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( $(now_ms) - start ))
+  started=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds (process running for [0-9.]*)' "$log" || true)
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  results+=("$elapsed")
+  echo "run $run: first response after ${elapsed} ms${started:+ ($started)}"
+  # Let the port close before the next run
+  while curl -fs -o /dev/null "$url"; do sleep 0.1; done
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "median: ${sorted[$(( ${#sorted[@]} / 2 ))]} ms, min: ${sorted[0]} ms, max: ${sorted[-1]} ms"
@@ -0,0 +1,51 @@
+package com.cursorraffle.backend.benchmark;
+
+import com.cursorraffle.backend.repository.CredentialRepository;
+import com.cursorraffle.backend.repository.CredentialRepository.Credential;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the R2DBC repositories, so benchmarks measure
+ * our code and not a database.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Implements a repository interface with the given methods, keyed by
+     * name. Any other call fails, so a benchmark never quietly measures an
+     * unstubbed query.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        });
+    }
+
+    public static CredentialRepository credentials(Map<String, Credential> byEmail) {
+        return new CredentialRepository(null) {
+            @Override
+            public Mono<Credential> findByEmail(String email) {
+                return Mono.justOrEmpty(byEmail.get(email));
+            }
+        };
+    }
+}
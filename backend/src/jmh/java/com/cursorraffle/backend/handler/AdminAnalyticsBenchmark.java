@@ -0,0 +1,79 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AdminHandler#getAnalytics}: building the rollup snapshot, and
+ * encoding it the way the JSON codec does. Sprint count drives the size of
+ * the per-sprint impression map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdminAnalyticsBenchmark {
+
+    private static final ResolvableType SNAPSHOT_TYPE = ResolvableType.forClassWithGenerics(Map.class, String.class, Object.class);
+
+    @Param({"10", "1000"})
+    int sprints;
+
+    private AnalyticsRollupService analyticsRollupService;
+    private AdminHandler adminHandler;
+    private Jackson2JsonEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        // Only the rollup service is reached by getAnalytics
+        analyticsRollupService = new AnalyticsRollupService(null, null, null, null, Duration.ofMinutes(5));
+        adminHandler = new AdminHandler(null, null, null, analyticsRollupService, null, null, null, null);
+        for (int i = 0; i < 500; i++) {
+            analyticsRollupService.advertiserRegistered(i % 3 == 0);
+        }
+        String[] types = {"DAILY", "WEEKLY", "MONTHLY"};
+        String[] statuses = {"PENDING", "APPROVED", "REJECTED"};
+        for (int i = 0; i < 3000; i++) {
+            analyticsRollupService.applicationCreated(types[i % 3], statuses[(i / 3) % 3]);
+        }
+        for (int i = 0; i < sprints; i++) {
+            analyticsRollupService.impressionsRecorded("2026-10-" + (1 + i % 28) + "T17:" + i, 1000L + i);
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new Jackson2JsonEncoder(objectMapper);
+    }
+
+    @Benchmark
+    public ServerResponse getAnalytics() {
+        return adminHandler.getAnalytics(MockServerRequest.builder().build()).block();
+    }
+
+    @Benchmark
+    public int snapshotJson() {
+        DataBuffer buffer = encoder.encodeValue(analyticsRollupService.snapshot(), DefaultDataBufferFactory.sharedInstance,
+                SNAPSHOT_TYPE, MediaType.APPLICATION_JSON, null);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
@@ -0,0 +1,104 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.benchmark.InMemoryRepositories;
+import com.cursorraffle.backend.repository.AdminRepository;
+import com.cursorraffle.backend.repository.AdvertiserRepository;
+import com.cursorraffle.backend.repository.CredentialRepository.Credential;
+import com.cursorraffle.backend.repository.UserRepository;
+import com.cursorraffle.backend.repository.UserRepository.UserProfile;
+import com.cursorraffle.backend.service.CredentialService;
+import com.cursorraffle.backend.service.PasswordHashingService;
+import com.cursorraffle.backend.service.TokenService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthHandler#login} end to end, minus the database: credential
+ * lookup, BCrypt check on the hashing pool, profile load and token signing.
+ * Strength 4 makes the reactive and JWT overhead visible; 10 is what
+ * production pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthHandlerBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"4", "10"})
+    int bcryptStrength;
+
+    private PasswordHashingService passwordHashingService;
+    private AuthHandler authHandler;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(bcryptStrength);
+        SecretKey key = new SecretKeySpec("benchmark-signing-key-benchmark-signing-key".getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        Credential credential = new Credential("user", 42L, encoder.encode(PASSWORD), true);
+        CredentialService credentialService = new CredentialService(
+                InMemoryRepositories.credentials(Map.of(EMAIL, credential)), 10_000, Duration.ofMinutes(5));
+        UserProfile profile = new UserProfile(42L, EMAIL, "USER", "Ada", "Lovelace", "+905550000000");
+        UserRepository userRepository = InMemoryRepositories.stub(UserRepository.class,
+                Map.of("findProfileById", args -> Mono.just(profile)));
+
+        passwordHashingService = new PasswordHashingService(encoder, meterRegistry, 0, 256);
+        TokenService tokenService = new TokenService(new NimbusJwtEncoder(new ImmutableSecret<>(key)), key,
+                86_400_000L, 604_800_000L);
+        authHandler = new AuthHandler(userRepository,
+                InMemoryRepositories.stub(AdvertiserRepository.class, Map.of()),
+                InMemoryRepositories.stub(AdminRepository.class, Map.of()),
+                null, passwordHashingService, credentialService, tokenService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public ServerResponse login() {
+        return authHandler.login(request(EMAIL, PASSWORD)).block();
+    }
+
+    @Benchmark
+    public ServerResponse loginWrongPassword() {
+        return authHandler.login(request(EMAIL, "wrong")).block();
+    }
+
+    @Benchmark
+    public ServerResponse loginUnknownEmail() {
+        return authHandler.login(request("nobody@example.com", PASSWORD)).block();
+    }
+
+    private static MockServerRequest request(String email, String password) {
+        AuthHandler.LoginRequest body = new AuthHandler.LoginRequest();
+        body.setEmail(email);
+        body.setPassword(password);
+        return MockServerRequest.builder().body(Mono.just(body));
+    }
+}
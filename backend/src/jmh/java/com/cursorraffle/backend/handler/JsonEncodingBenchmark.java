@@ -0,0 +1,89 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.config.ReadModelJsonConfig;
+import com.cursorraffle.backend.model.Advertiser;
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.repository.AdvertiserRepository.AdvertiserSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of list responses through the WebFlux Jackson codec, set up
+ * like Spring Boot's. The full {@link Advertiser} entity is kept as a
+ * baseline for the {@link AdvertiserSummary} read model that replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonEncodingBenchmark {
+
+    @Param({"1", "50", "500"})
+    int rows;
+
+    private Jackson2JsonEncoder encoder;
+    private List<Advertiser> advertisers;
+    private List<AdvertiserSummary> summaries;
+    private List<SponsorshipApplication> applications;
+
+    @Setup
+    public void setUp() {
+        encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ReadModelJsonConfig().readModelModule())
+                .build());
+        advertisers = new ArrayList<>(rows);
+        summaries = new ArrayList<>(rows);
+        applications = new ArrayList<>(rows);
+        LocalDateTime now = LocalDateTime.of(2026, 10, 17, 17, 0);
+        for (int i = 0; i < rows; i++) {
+            Advertiser advertiser = new Advertiser((long) i, "Şirket " + i, "1234567890", "Perakende",
+                    "https://example.com/" + i, "Reklamveren açıklaması ".repeat(10), "ilan" + i + "@example.com",
+                    "+905550000000", "Atatürk Cad. No: " + i + " İstanbul",
+                    "$2a$10$abcdefghijklmnopqrstuuJ8q9E1nE7m2y0Xx0o5m9Q1uTqg2wW1e", null, true, now, now);
+            advertisers.add(advertiser);
+            summaries.add(AdvertiserSummary.of(advertiser));
+            applications.add(new SponsorshipApplication((long) i, (long) i, "Şirket " + i, "DAILY", 1000.0 + i,
+                    now, now.plusDays(1), "APPROVED", now, now, 3L));
+        }
+    }
+
+    @Benchmark
+    public int advertiserEntities() {
+        return encode(advertisers, Advertiser.class);
+    }
+
+    @Benchmark
+    public int advertiserSummaries() {
+        return encode(summaries, AdvertiserSummary.class);
+    }
+
+    @Benchmark
+    public int sponsorshipApplications() {
+        return encode(applications, SponsorshipApplication.class);
+    }
+
+    private int encode(List<?> values, Class<?> elementType) {
+        DataBuffer buffer = encoder.encodeValue(values, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forClassWithGenerics(List.class, elementType), MediaType.APPLICATION_JSON, null);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bid placement in the in-memory order books. Every call replaces an
+ * existing bid with a new amount, which is the steady state during a busy
+ * auction. Run with {@code -t} to measure contention on shared slots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SponsorshipAuctionBenchmark {
+
+    private static final String[] TYPES = {"DAILY", "WEEKLY", "MONTHLY"};
+
+    @Param({"3", "300"})
+    int slots;
+
+    @Param({"10000"})
+    int bidders;
+
+    private SponsorshipAuctionService auctionService;
+    private SponsorshipApplication[] applications;
+
+    @Setup
+    public void setUp() {
+        // The repository and status service are only used when an auction closes
+        auctionService = new SponsorshipAuctionService(null, null, Duration.ofHours(1), Duration.ofSeconds(10), "UTC");
+        LocalDateTime firstStart = LocalDateTime.now(ZoneOffset.UTC).plusYears(1).withNano(0);
+        SplittableRandom random = new SplittableRandom(42);
+        applications = new SponsorshipApplication[bidders];
+        for (int i = 0; i < bidders; i++) {
+            int slot = i % slots;
+            SponsorshipApplication application = new SponsorshipApplication();
+            application.setId((long) i);
+            application.setAdvertiserId((long) i);
+            application.setType(TYPES[slot % TYPES.length]);
+            application.setStartDate(firstStart.plusDays(slot));
+            application.setStatus("PENDING");
+            application.setBidAmount(100 + random.nextDouble(10_000));
+            applications[i] = application;
+            auctionService.placeBid(application);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public boolean raiseBid(Cursor cursor) {
+        SponsorshipApplication current = applications[cursor.random.nextInt(applications.length)];
+        // A copy, as a request would carry, so concurrent threads never share a mutable entity
+        SponsorshipApplication raised = new SponsorshipApplication(current.getId(), current.getAdvertiserId(), null,
+                current.getType(), 100 + cursor.random.nextDouble(10_000), current.getStartDate(), null,
+                "PENDING", null, null, null);
+        return auctionService.placeBid(raised);
+    }
+
+    @Benchmark
+    public Object leadingBid(Cursor cursor) {
+        SponsorshipApplication any = applications[cursor.random.nextInt(applications.length)];
+        return auctionService.leadingBid(any.getType(), any.getStartDate());
+    }
+}
@@ -0,0 +1,64 @@
+package com.cursorraffle.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One server-time tick: encoding the SSE frame once and fanning it out to
+ * every subscriber, each wrapping it in a buffer as
+ * {@code TimeController} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeServiceBenchmark {
+
+    @Param({"1", "1000", "10000"})
+    int subscribers;
+
+    private final LongAdder delivered = new LongAdder();
+    private final List<Disposable> subscriptions = new ArrayList<>();
+    private TimeService timeService;
+
+    @Setup
+    public void setUp() {
+        timeService = new TimeService(new SimpleMeterRegistry());
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(timeService.getServerTimeFrames()
+                    .map(DefaultDataBufferFactory.sharedInstance::wrap)
+                    .subscribe(this::deliver));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscriptions.forEach(Disposable::dispose);
+        subscriptions.clear();
+    }
+
+    @Benchmark
+    public long tick() {
+        timeService.tick();
+        return delivered.sum();
+    }
+
+    private void deliver(DataBuffer frame) {
+        delivered.add(frame.readableByteCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.cursorraffle.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raffle draws over pools of up to ten million entrants, plus the cost of
+ * crediting tickets while views are tallied.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeightedTicketPoolBenchmark {
+
+    @Param({"10000", "10000000"})
+    int entries;
+
+    @Param({"10"})
+    int winners;
+
+    private WeightedTicketPool pool;
+    private long seed;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new WeightedTicketPool(entries);
+        random = new SplittableRandom(7);
+        for (int i = 0; i < entries; i++) {
+            pool.add(i + 1L, 1 + random.nextInt(50));
+        }
+    }
+
+    @Benchmark
+    public WeightedTicketPool.Winner[] draw() {
+        return pool.draw(winners, seed++);
+    }
+
+    @Benchmark
+    public long addTickets() {
+        long userId = 1 + random.nextInt(entries);
+        pool.add(userId, 1);
+        return pool.totalWeight();
+    }
+}
@@ -0,0 +1,151 @@
+package com.cursorraffle.backend.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The database behind a load run: a throwaway embedded PostgreSQL, or an
+ * existing scratch database passed with {@code --jdbc-url}, whose tables
+ * are emptied before seeding. H2 cannot stand in here, the
+ * repositories rely on PostgreSQL-only SQL ({@code = ANY(:ids)},
+ * {@code UPDATE ... FROM ... RETURNING}, {@code ON CONFLICT}).
+ * <p>
+ * Seeded data is set-generated in a few statements so a run starts in
+ * seconds. Every user shares one password hash of production strength, so
+ * logins pay the real BCrypt cost.
+ */
+final class LoadDatabase implements AutoCloseable {
+
+    static final String USER_PASSWORD = "load-password";
+    static final String ADMIN_EMAIL = "load-admin@load.test";
+
+    private final EmbeddedPostgres embedded;
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+
+    private LoadDatabase(EmbeddedPostgres embedded, String jdbcUrl, String user, String password) {
+        this.embedded = embedded;
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+    }
+
+    static LoadDatabase start(LoadOptions options) throws IOException {
+        if (options.jdbcUrl() != null) {
+            return new LoadDatabase(null, options.jdbcUrl(), options.jdbcUser(), options.jdbcPassword());
+        }
+        EmbeddedPostgres embedded = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .setServerConfig("fsync", "off")
+                .start();
+        return new LoadDatabase(embedded, embedded.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+    }
+
+    /** The same database as an {@code r2dbc:} URL for the application. */
+    String r2dbcUrl() {
+        String url = jdbcUrl.substring("jdbc:".length());
+        int query = url.indexOf('?');
+        return "r2dbc:" + (query < 0 ? url : url.substring(0, query));
+    }
+
+    String user() {
+        return user;
+    }
+
+    String password() {
+        return password;
+    }
+
+    /**
+     * Creates the base tables and replaces their contents with the seed.
+     * Advertisers start unverified, so admin bursts always have work.
+     */
+    void seed(LoadOptions options) throws IOException, SQLException {
+        String hash = new BCryptPasswordEncoder().encode(USER_PASSWORD);
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(resource("load-schema.sql"));
+            statement.execute("TRUNCATE users, admins, sponsorship_applications, advertisers RESTART IDENTITY");
+
+            try (PreparedStatement users = connection.prepareStatement("""
+                    INSERT INTO users (email, password, role, name, surname)
+                    SELECT 'load-user-' || n || '@load.test', ?, 'USER', 'Load', 'User ' || n
+                    FROM generate_series(1, ?) n
+                    """)) {
+                users.setString(1, hash);
+                users.setInt(2, options.users());
+                users.executeUpdate();
+            }
+            try (PreparedStatement admin = connection.prepareStatement(
+                    "INSERT INTO admins (email, password, name, surname, created_at) VALUES (?, ?, 'Load', 'Admin', now())")) {
+                admin.setString(1, ADMIN_EMAIL);
+                admin.setString(2, hash);
+                admin.executeUpdate();
+            }
+            try (PreparedStatement advertisers = connection.prepareStatement("""
+                    INSERT INTO advertisers (company_name, industry, contact_email, password, is_verified, created_at)
+                    SELECT 'Load Advertiser ' || n, 'Retail', 'load-advertiser-' || n || '@load.test', ?, FALSE, now()
+                    FROM generate_series(1, ?) n
+                    """)) {
+                advertisers.setString(1, hash);
+                advertisers.setInt(2, options.advertisers());
+                advertisers.executeUpdate();
+            }
+            // Approved and running now, spread over the slot types and the first advertisers
+            try (PreparedStatement sponsorships = connection.prepareStatement("""
+                    INSERT INTO sponsorship_applications
+                        (advertiser_id, advertiser_name, type, bid_amount, start_date, end_date, status, created_at)
+                    SELECT (n - 1) % ? + 1, 'Load Advertiser ' || ((n - 1) % ? + 1),
+                           (ARRAY['DAILY', 'WEEKLY', 'MONTHLY'])[n % 3 + 1], 100 + n,
+                           now() - interval '1 day', now() + interval '7 days', 'APPROVED', now()
+                    FROM generate_series(1, ?) n
+                    """)) {
+                int advertisers = Math.max(1, options.advertisers());
+                sponsorships.setInt(1, advertisers);
+                sponsorships.setInt(2, advertisers);
+                sponsorships.setInt(3, options.sponsorships());
+                sponsorships.executeUpdate();
+            }
+            statement.execute("ANALYZE");
+        }
+    }
+
+    /** Id of the seeded admin. */
+    long adminId() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             PreparedStatement query = connection.prepareStatement("SELECT id FROM admins WHERE email = ?")) {
+            query.setString(1, ADMIN_EMAIL);
+            try (ResultSet rows = query.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        }
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = LoadDatabase.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.cursorraffle.backend.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Command line options of {@link LoadSuite}, as {@code --name=value}.
+ * Durations take the same forms as application properties ({@code 30s}, {@code 2m}).
+ */
+record LoadOptions(Duration warmup,
+                   Duration duration,
+                   int users,
+                   int advertisers,
+                   int sponsorships,
+                   int loginConcurrency,
+                   int pollers,
+                   int streamSubscribers,
+                   int burstSize,
+                   Duration burstInterval,
+                   String jdbcUrl,
+                   String jdbcUser,
+                   String jdbcPassword,
+                   Path reportDir,
+                   Path baselines,
+                   boolean writeBaselines) {
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        LoadOptions options = new LoadOptions(
+                duration(values.remove("warmup"), "10s"),
+                duration(values.remove("duration"), "30s"),
+                integer(values.remove("users"), 10_000),
+                integer(values.remove("advertisers"), 20_000),
+                integer(values.remove("sponsorships"), 200),
+                integer(values.remove("login-concurrency"), 32),
+                integer(values.remove("pollers"), 64),
+                integer(values.remove("stream-subscribers"), 1000),
+                integer(values.remove("burst-size"), 100),
+                duration(values.remove("burst-interval"), "1s"),
+                values.remove("jdbc-url"),
+                Objects.requireNonNullElse(values.remove("jdbc-user"), "postgres"),
+                Objects.requireNonNullElse(values.remove("jdbc-password"), "postgres"),
+                Path.of(Objects.requireNonNullElse(values.remove("report-dir"), "target/load/reports")),
+                path(values.remove("baselines")),
+                Boolean.parseBoolean(values.remove("write-baselines")));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return options;
+    }
+
+    private static Duration duration(String value, String fallback) {
+        return DurationStyle.detectAndParse(value == null ? fallback : value);
+    }
+
+    private static Path path(String value) {
+        return value == null ? null : Path.of(value);
+    }
+
+    private static int integer(String value, int fallback) {
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+}
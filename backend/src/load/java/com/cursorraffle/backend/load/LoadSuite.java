@@ -0,0 +1,203 @@
+package com.cursorraffle.backend.load;
+
+import com.cursorraffle.backend.ReactiveBackendApplication;
+import com.cursorraffle.backend.load.RouteStats.Result;
+import com.cursorraffle.backend.service.TokenService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * End-to-end load regression run: seeds a database, boots the real
+ * application against it on a random port, drives {@link Workloads} over
+ * HTTP and reports each route's latency percentiles, throughput, error
+ * ratio and 429/503 ratio.
+ * <p>
+ * Only with {@code --baselines=<file>} does it gate: it exits non-zero when
+ * any route breaks that file's limits. Limits only mean something on the
+ * machine that measured them, so there is no default file; generate one on
+ * the runner with {@code --write-baselines}, which writes it, with
+ * headroom, to {@code --report-dir} next to the full HdrHistogram
+ * percentile distributions. A file recorded on a runner with a different
+ * processor count is reported but not gated on.
+ */
+public final class LoadSuite {
+
+    // Fresh baselines allow this much drift before failing
+    private static final double LATENCY_HEADROOM = 1.5;
+    private static final double THROUGHPUT_HEADROOM = 0.67;
+    // Shedding is bursty, so fresh rejection limits never go below this
+    private static final double MIN_REJECTED_RATIO = 0.001;
+    // Limits only hold on the machine shape that measured them
+    private static final String PROCESSORS_KEY = "runner.processors";
+
+    private LoadSuite() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        List<String> failures;
+        try (LoadDatabase database = LoadDatabase.start(options)) {
+            database.seed(options);
+            try (ConfigurableApplicationContext context = boot(database)) {
+                int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+                String adminToken = context.getBean(TokenService.class)
+                        .issueAccessToken("admin", database.adminId(), LoadDatabase.ADMIN_EMAIL);
+                failures = run(options, new Workloads(options, port, adminToken));
+            }
+        }
+        if (!failures.isEmpty()) {
+            System.out.println();
+            failures.forEach(failure -> System.out.println("REGRESSION " + failure));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext boot(LoadDatabase database) throws IOException {
+        Path uploads = Files.createTempDirectory("load-media");
+        // Passed as arguments so they win over application.properties
+        return new SpringApplicationBuilder(ReactiveBackendApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run(
+                        "--server.port=0",
+                        "--spring.r2dbc.url=" + database.r2dbcUrl(),
+                        "--spring.r2dbc.username=" + database.user(),
+                        "--spring.r2dbc.password=" + database.password(),
+                        "--spring.r2dbc.pool.max-size=20",
+                        "--spring.sql.init.mode=always",
+                        // The suite is one client address; per-IP limits would measure the limiter
+                        "--app.rate-limit.enabled=false",
+                        "--app.upload.dir=" + uploads,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.cursorraffle=WARN",
+                        "--logging.level.org.springframework.r2dbc=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+    }
+
+    private static List<String> run(LoadOptions options, Workloads workloads) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long deadline = measureFrom + options.duration().toNanos();
+        System.out.printf("Warming up for %s, then measuring for %s%n", options.warmup(), options.duration());
+
+        CompletableFuture<Void> running = workloads.run(deadline).toFuture();
+        Thread.sleep(options.warmup().toMillis());
+        workloads.stats().forEach(RouteStats::reset);
+        running.join();
+        long elapsed = System.nanoTime() - measureFrom;
+
+        List<Result> results = new ArrayList<>();
+        for (RouteStats stats : workloads.stats()) {
+            results.add(stats.result(elapsed));
+        }
+        report(results);
+        Files.createDirectories(options.reportDir());
+        for (Result result : results) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(options.reportDir().resolve(result.route() + ".hgrm")))) {
+                result.histogram().outputPercentileDistribution(out, 1e6);
+            }
+        }
+        if (options.writeBaselines()) {
+            Path file = options.reportDir().resolve("load-baselines.properties");
+            writeBaselines(results, file);
+            System.out.println("Wrote " + file);
+        }
+        if (options.baselines() == null) {
+            System.out.println();
+            System.out.println("No --baselines file given; reporting only.");
+            return List.of();
+        }
+        Properties baselines = baselines(options.baselines());
+        String recordedOn = baselines.getProperty(PROCESSORS_KEY);
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (recordedOn != null && Integer.parseInt(recordedOn) != processors) {
+            System.out.println();
+            System.out.printf("Baselines were recorded with %s processors, this run has %d; not gating.%n", recordedOn, processors);
+            return List.of();
+        }
+        List<String> failures = compare(results, baselines);
+        if (failures.isEmpty()) {
+            System.out.println();
+            System.out.println("All routes within baselines.");
+        }
+        return failures;
+    }
+
+    private static void report(List<Result> results) {
+        System.out.println();
+        System.out.printf("%-20s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                "route", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "429/503");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-20s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d %8d%n",
+                    result.route(), result.count(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.maxMillis(), result.errors(), result.rejected());
+        }
+    }
+
+    private static List<String> compare(List<Result> results, Properties baselines) {
+        List<String> failures = new ArrayList<>();
+        for (Result result : results) {
+            String route = result.route();
+            atMost(failures, route, "p99-ms", result.percentileMillis(99), baselines);
+            atMost(failures, route, "p999-ms", result.percentileMillis(99.9), baselines);
+            atMost(failures, route, "max-error-ratio", result.errorRatio(), baselines);
+            atMost(failures, route, "max-rejected-ratio", result.rejectedRatio(), baselines);
+            String minThroughput = baselines.getProperty(route + ".min-throughput");
+            if (minThroughput != null && result.throughput() < Double.parseDouble(minThroughput)) {
+                failures.add(String.format(Locale.ROOT, "%s.min-throughput: %.2f < %s", route, result.throughput(), minThroughput));
+            }
+        }
+        return failures;
+    }
+
+    private static void atMost(List<String> failures, String route, String key, double actual, Properties baselines) {
+        String limit = baselines.getProperty(route + "." + key);
+        if (limit != null && actual > Double.parseDouble(limit)) {
+            failures.add(String.format(Locale.ROOT, "%s.%s: %.3f > %s", route, key, actual, limit));
+        }
+    }
+
+    private static Properties baselines(Path file) throws IOException {
+        Properties baselines = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            baselines.load(in);
+        }
+        return baselines;
+    }
+
+    private static void writeBaselines(List<Result> results, Path file) throws IOException {
+        StringBuilder text = new StringBuilder("""
+                # Measured baselines with headroom, for --baselines on the runner that measured them.
+                #   <route>.p99-ms / <route>.p999-ms : upper bounds on latency
+                #   <route>.min-throughput           : lower bound on completed requests (or frames) per second
+                #   <route>.max-error-ratio          : upper bound on 5xx and transport errors over all requests
+                #   <route>.max-rejected-ratio       : upper bound on 429 and 503 answers over all requests
+                # Throughput scales with the worker counts, so only the same options compare.
+                """);
+        text.append(PROCESSORS_KEY).append('=').append(Runtime.getRuntime().availableProcessors()).append('\n');
+        for (Result result : results) {
+            String route = result.route();
+            text.append(String.format(Locale.ROOT, "%n%s.p99-ms=%.1f%n", route, result.percentileMillis(99) * LATENCY_HEADROOM));
+            text.append(String.format(Locale.ROOT, "%s.p999-ms=%.1f%n", route, result.percentileMillis(99.9) * LATENCY_HEADROOM));
+            text.append(String.format(Locale.ROOT, "%s.min-throughput=%.1f%n", route, result.throughput() * THROUGHPUT_HEADROOM));
+            text.append(String.format(Locale.ROOT, "%s.max-error-ratio=%.4f%n", route, result.errorRatio()));
+            text.append(String.format(Locale.ROOT, "%s.max-rejected-ratio=%.4f%n", route,
+                    Math.max(result.rejectedRatio() * LATENCY_HEADROOM, MIN_REJECTED_RATIO)));
+        }
+        Files.writeString(file, text);
+    }
+}
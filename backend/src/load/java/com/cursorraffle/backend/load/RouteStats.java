@@ -0,0 +1,89 @@
+package com.cursorraffle.backend.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one route. Workers record from any thread
+ * into an HdrHistogram {@link Recorder}; {@link #reset()} drops what was
+ * recorded during warm-up and {@link #result} reads the measured interval.
+ * Latencies are nanoseconds, tracked to three significant digits up to one
+ * minute.
+ */
+final class RouteStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String route;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    RouteStats(String route) {
+        this.route = route;
+    }
+
+    String route() {
+        return route;
+    }
+
+    /** A completed request (or received frame) that took {@code nanos}. */
+    void record(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS));
+    }
+
+    /** A 5xx, an unexpected status or a transport failure. */
+    void error() {
+        errors.increment();
+    }
+
+    /** A 429 or 503 the server answered on purpose under load. */
+    void rejected() {
+        rejected.increment();
+    }
+
+    void reset() {
+        recorder.reset();
+        errors.reset();
+        rejected.reset();
+    }
+
+    Result result(long elapsedNanos) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(route, histogram, errors.sum(), rejected.sum(),
+                histogram.getTotalCount() / (elapsedNanos / 1e9));
+    }
+
+    record Result(String route, Histogram histogram, long errors, long rejected, double throughput) {
+
+        long count() {
+            return histogram.getTotalCount();
+        }
+
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        double maxMillis() {
+            return histogram.getMaxValue() / 1e6;
+        }
+
+        /** Errors over everything attempted, rejections included. */
+        double errorRatio() {
+            return ratio(errors);
+        }
+
+        /** 429s and 503s over everything attempted. */
+        double rejectedRatio() {
+            return ratio(rejected);
+        }
+
+        private double ratio(long outcomes) {
+            long attempted = count() + errors + rejected;
+            return attempted == 0 ? 0 : (double) outcomes / attempted;
+        }
+    }
+}
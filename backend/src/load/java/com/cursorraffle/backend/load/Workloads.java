@@ -0,0 +1,197 @@
+package com.cursorraffle.backend.load;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The traffic a sprint start puts on the backend, each as a closed loop of
+ * workers that send the next request as soon as the previous one answers:
+ * <ul>
+ *     <li>a login storm over the seeded users,</li>
+ *     <li>clients polling {@code /api/sponsorship/active},</li>
+ *     <li>long-lived {@code /api/time/stream} subscribers, where the recorded
+ *     latency is how late each tick arrives after the server stamped it,</li>
+ *     <li>admins approving a block of pending advertisers every burst
+ *     interval and rejecting it again, so the next pass finds work.</li>
+ * </ul>
+ * Each workload runs until the deadline passed to {@link #run}.
+ */
+final class Workloads {
+
+    private static final Pattern EPOCH = Pattern.compile("\"epoch\":\"(\\d+)\"");
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final HttpClient streamClient;
+    private final String adminToken;
+
+    final RouteStats login = new RouteStats("login");
+    final RouteStats sponsorshipActive = new RouteStats("sponsorship-active");
+    final RouteStats timeStream = new RouteStats("time-stream");
+    final RouteStats adminApprove = new RouteStats("admin-approve");
+    final RouteStats adminReject = new RouteStats("admin-reject");
+
+    Workloads(LoadOptions options, int port, String adminToken) {
+        this.options = options;
+        ConnectionProvider pool = ConnectionProvider.builder("load")
+                .maxConnections(options.loginConcurrency() + options.pollers() + 8)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(pool).baseUrl("http://localhost:" + port);
+        // One connection per subscriber, outside the pool, like real clients
+        this.streamClient = HttpClient.newConnection().baseUrl("http://localhost:" + port);
+        this.adminToken = adminToken;
+    }
+
+    List<RouteStats> stats() {
+        return List.of(login, sponsorshipActive, timeStream, adminApprove, adminReject);
+    }
+
+    /** Runs every workload until {@code deadlineNanos} (a {@link System#nanoTime()} value). */
+    Mono<Void> run(long deadlineNanos) {
+        List<Mono<Void>> workloads = new ArrayList<>();
+        workloads.add(closedLoop(options.loginConcurrency(), deadlineNanos, login, this::login));
+        workloads.add(closedLoop(options.pollers(), deadlineNanos, sponsorshipActive, this::sponsorshipActive));
+        workloads.add(timeStream(deadlineNanos));
+        workloads.add(adminBursts(deadlineNanos));
+        return Mono.when(workloads);
+    }
+
+    private Mono<Void> closedLoop(int workers, long deadlineNanos, RouteStats stats, Supplier<Mono<Integer>> request) {
+        return Flux.range(0, workers)
+                .flatMap(worker -> timed(stats, request).repeat(() -> System.nanoTime() < deadlineNanos), workers)
+                .then();
+    }
+
+    private static Mono<Void> timed(RouteStats stats, Supplier<Mono<Integer>> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.get()
+                    .doOnNext(status -> {
+                        if (status == 429 || status == 503) {
+                            stats.rejected();
+                        } else if (status >= 200 && status < 300) {
+                            stats.record(System.nanoTime() - start);
+                        } else {
+                            stats.error();
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        stats.error();
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    private Mono<Integer> login() {
+        int user = ThreadLocalRandom.current().nextInt(options.users()) + 1;
+        String body = "{\"email\":\"load-user-" + user + "@load.test\",\"password\":\"" + LoadDatabase.USER_PASSWORD + "\"}";
+        return client.headers(headers -> headers
+                        .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON))
+                .post()
+                .uri("/api/auth/login")
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .responseSingle((response, content) -> content.asByteArray().then(Mono.just(response.status().code())));
+    }
+
+    private Mono<Integer> sponsorshipActive() {
+        return client.headers(headers -> headers.set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON))
+                .get()
+                .uri("/api/sponsorship/active")
+                .responseSingle((response, content) -> content.asByteArray().then(Mono.just(response.status().code())));
+    }
+
+    private Mono<Integer> adminBulk(String action, List<Long> ids) {
+        return client.headers(headers -> headers
+                        .set(HttpHeaderNames.AUTHORIZATION, "Bearer " + adminToken)
+                        .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON))
+                .put()
+                .uri("/api/admin/advertisers/" + action)
+                .send(ByteBufFlux.fromString(Mono.just("{\"ids\":" + ids + "}")))
+                .responseSingle((response, content) -> content.asByteArray().then(Mono.just(response.status().code())));
+    }
+
+    /**
+     * Each pass approves the next block of {@code burst-size} advertisers,
+     * then rejects the same block. A slow pass delays the next one rather
+     * than overlapping it, as a single admin would.
+     */
+    private Mono<Void> adminBursts(long deadlineNanos) {
+        int blocks = Math.max(1, options.advertisers() / Math.max(1, options.burstSize()));
+        return Flux.interval(Duration.ZERO, options.burstInterval())
+                .onBackpressureDrop()
+                .takeWhile(pass -> System.nanoTime() < deadlineNanos)
+                .concatMap(pass -> {
+                    List<Long> ids = block((int) (pass % blocks));
+                    return timed(adminApprove, () -> adminBulk("approve", ids))
+                            .then(timed(adminReject, () -> adminBulk("reject", ids)));
+                }, 0)
+                .then();
+    }
+
+    private List<Long> block(int index) {
+        long first = (long) index * options.burstSize() + 1;
+        List<Long> ids = new ArrayList<>(options.burstSize());
+        for (long id = first; id < first + options.burstSize() && id <= options.advertisers(); id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Holds {@code stream-subscribers} connections open until the deadline.
+     * Frames are split on the blank line that ends each event, so a frame
+     * arriving across two chunks is still read once.
+     */
+    private Mono<Void> timeStream(long deadlineNanos) {
+        Duration remaining = Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+        return Flux.range(0, options.streamSubscribers())
+                .flatMap(subscriber -> subscribe().take(remaining), options.streamSubscribers())
+                .then();
+    }
+
+    private Flux<Long> subscribe() {
+        return Flux.defer(() -> {
+            StringBuilder pending = new StringBuilder();
+            return streamClient.headers(headers -> headers.set(HttpHeaderNames.ACCEPT, "text/event-stream"))
+                    .get()
+                    .uri("/api/time/stream")
+                    .responseContent()
+                    .asString()
+                    .concatMapIterable(chunk -> {
+                        pending.append(chunk);
+                        List<Long> epochs = new ArrayList<>(1);
+                        int end;
+                        while ((end = pending.indexOf("\n\n")) >= 0) {
+                            Matcher matcher = EPOCH.matcher(pending.substring(0, end));
+                            if (matcher.find()) {
+                                epochs.add(Long.parseLong(matcher.group(1)));
+                            }
+                            pending.delete(0, end + 2);
+                        }
+                        return epochs;
+                    });
+        })
+                .doOnNext(epoch -> timeStream.record((System.currentTimeMillis() - epoch) * 1_000_000))
+                .onErrorResume(e -> {
+                    timeStream.error();
+                    return Mono.empty();
+                });
+    }
+}
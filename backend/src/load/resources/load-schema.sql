@@ -0,0 +1,53 @@
+-- Base tables the application expects to exist; its own schema.sql adds the rest on startup.
+-- Mirrors the entities in com.cursorraffle.backend.model.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(32) NOT NULL,
+    name VARCHAR(255),
+    surname VARCHAR(255),
+    phone VARCHAR(32)
+);
+
+CREATE TABLE IF NOT EXISTS admins (
+    id BIGSERIAL PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    surname VARCHAR(255),
+    phone VARCHAR(32),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS advertisers (
+    id BIGSERIAL PRIMARY KEY,
+    company_name VARCHAR(255) NOT NULL,
+    tax_number VARCHAR(64),
+    industry VARCHAR(255),
+    website_url VARCHAR(512),
+    description TEXT,
+    contact_email VARCHAR(255) NOT NULL UNIQUE,
+    contact_phone VARCHAR(32),
+    address TEXT,
+    password VARCHAR(255) NOT NULL,
+    logo_url VARCHAR(512),
+    is_verified BOOLEAN,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS sponsorship_applications (
+    id BIGSERIAL PRIMARY KEY,
+    advertiser_id BIGINT REFERENCES advertisers (id),
+    advertiser_name VARCHAR(255),
+    type VARCHAR(16) NOT NULL,
+    bid_amount DOUBLE PRECISION,
+    start_date TIMESTAMP,
+    end_date TIMESTAMP,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
@@ -1,11 +1,14 @@
 package com.cursorraffle.backend;
 
+import com.cursorraffle.backend.config.FastStartRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 
 @SpringBootApplication(scanBasePackages = "com.cursorraffle.backend")
 @EnableR2dbcRepositories(basePackages = "com.cursorraffle.backend.repository")
+@ImportRuntimeHints(FastStartRuntimeHints.class)
 public class ReactiveBackendApplication {
 
 	public static void main(String[] args) {
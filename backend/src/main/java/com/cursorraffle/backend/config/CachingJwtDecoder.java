@@ -0,0 +1,44 @@
+package com.cursorraffle.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens whose signature and claims were already verified, so a
+ * client repeating the same bearer token skips the HMAC check. Expiry is
+ * re-checked on every hit.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        Jwt cached = verified.getIfPresent(token);
+        if (cached != null) {
+            Instant expiresAt = cached.getExpiresAt();
+            if (expiresAt == null || expiresAt.isAfter(Instant.now())) {
+                return Mono.just(cached);
+            }
+            verified.invalidate(token);
+        }
+        return delegate.decode(token)
+                .doOnNext(jwt -> verified.put(token, jwt));
+    }
+}
@@ -0,0 +1,212 @@
+package com.cursorraffle.backend.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the data access layer: one {@code repository.query} timer per
+ * repository method, and {@code r2dbc.pool.acquire} for the wait on a pooled
+ * connection. Both start timing on subscription, which is when reactive work
+ * actually happens; Spring Data's own invocation metrics only see the
+ * method call that assembles the publisher.
+ * <p>
+ * Pool occupancy ({@code r2dbc.pool.acquired}, {@code idle},
+ * {@code pending}, {@code max.allocated}) is published by Spring Boot's
+ * actuator; the wrapper here stays unwrappable so that keeps working.
+ */
+@Configuration
+public class DataAccessMetricsConfig {
+
+    private static final String REPOSITORY_PACKAGE = "com.cursorraffle.backend.repository";
+
+    // Static so the post-processors do not pull this configuration in early
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Class<?> repository = repositoryType(bean);
+                if (repository == null) {
+                    return bean;
+                }
+                QueryTimer timer = new QueryTimer(repository.getSimpleName(), meterRegistry.getObject());
+                // Spring Data repositories are already proxies; time around their whole advice chain
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, timer);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(!repository.isInterface());
+                proxyFactory.addAdvice(timer);
+                return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionPoolMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionPool pool) {
+                    return new TimedConnectionFactory(pool, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // The repository interface (Spring Data) or class (DatabaseClient based) in our package, if any
+    private static Class<?> repositoryType(Object bean) {
+        Class<?> target = AopUtils.getTargetClass(bean);
+        if (REPOSITORY_PACKAGE.equals(target.getPackageName())) {
+            return target;
+        }
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            if (REPOSITORY_PACKAGE.equals(type.getPackageName())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Times each Mono or Flux a repository method returns, tagged by
+     * repository, method and outcome. A Flux cut short by its subscriber
+     * counts as {@code CANCELLED}, not as a failure.
+     */
+    private static final class QueryTimer implements MethodInterceptor {
+
+        private final String repository;
+        private final Meter.MeterProvider<Timer> timers;
+
+        QueryTimer(String repository, MeterRegistry meterRegistry) {
+            this.repository = repository;
+            this.timers = Timer.builder("repository.query")
+                    .description("Time from subscribing to a repository query until it terminates")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .withRegistry(meterRegistry);
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            Method method = invocation.getMethod();
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return mono.doFinally(signal -> record(method, signal, start));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                return Flux.defer(() -> {
+                    long start = System.nanoTime();
+                    return flux.doFinally(signal -> record(method, signal, start));
+                });
+            }
+            return result;
+        }
+
+        private void record(Method method, SignalType signal, long start) {
+            timers.withTags("repository", repository, "method", method.getName(), "outcome", outcome(signal))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "ERROR";
+            case CANCEL -> "CANCELLED";
+            default -> "SUCCESS";
+        };
+    }
+
+    /**
+     * Times {@link #create()} on the pool, which is the wait for a free
+     * connection (or a new one while the pool is below its maximum). Stays
+     * unwrappable to the pool so actuator's pool gauges still bind.
+     */
+    static final class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, DisposableBean {
+
+        private final ConnectionPool pool;
+        private final Meter.MeterProvider<Timer> timers;
+
+        TimedConnectionFactory(ConnectionPool pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.timers = Timer.builder("r2dbc.pool.acquire")
+                    .description("Time spent waiting for a pooled R2DBC connection")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .withRegistry(meterRegistry);
+        }
+
+        @Override
+        public Mono<Connection> create() {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                boolean[] recorded = new boolean[1];
+                // Recorded on the connection itself; the caller's query starts before the pool's Mono terminates
+                return pool.create()
+                        .doOnEach(signal -> {
+                            if (!recorded[0] && (signal.isOnNext() || signal.isOnError())) {
+                                recorded[0] = true;
+                                record(signal.isOnNext() ? "SUCCESS" : "ERROR", start);
+                            }
+                        })
+                        .doOnCancel(() -> {
+                            if (!recorded[0]) {
+                                recorded[0] = true;
+                                record("CANCELLED", start);
+                            }
+                        });
+            });
+        }
+
+        private void record(String outcome, long start) {
+            timers.withTags("outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return pool.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return pool;
+        }
+
+        // The pool bean's inferred close method no longer applies once it is wrapped
+        @Override
+        public void destroy() {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cursorraffle.backend.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reflection hints for the types Spring AOT cannot see from bean
+ * definitions: the Lombok {@code @Table} models R2DBC maps rows onto, and
+ * the request bodies and read models nested in handlers and repositories,
+ * which functional routes and {@code R2dbcRepository} query methods bind
+ * by type at runtime.
+ * <p>
+ * Runs at build time during AOT processing, so the package scan costs
+ * nothing at startup and new models or request classes are picked up
+ * without touching this list.
+ */
+public class FastStartRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String BASE_PACKAGE = "com.cursorraffle.backend";
+    private static final TypeFilter TOP_LEVEL = new RegexPatternTypeFilter(Pattern.compile("[^$]*"));
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        List<Class<?>> types = new ArrayList<>();
+        types.addAll(scan(classLoader, BASE_PACKAGE + ".model", new AnnotationTypeFilter(Table.class)));
+        for (String holder : List.of("handler", "repository")) {
+            for (Class<?> type : scan(classLoader, BASE_PACKAGE + "." + holder, TOP_LEVEL)) {
+                types.addAll(List.of(type.getDeclaredClasses()));
+            }
+        }
+        bindingRegistrar.registerReflectionHints(hints.reflection(), types.toArray(Class<?>[]::new));
+    }
+
+    private static List<Class<?>> scan(ClassLoader classLoader, String basePackage, TypeFilter filter) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            // Repositories are interfaces; accept them alongside classes
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                return definition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter(filter);
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+        }
+        return types;
+    }
+}
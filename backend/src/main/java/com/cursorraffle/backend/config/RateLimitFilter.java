@@ -0,0 +1,327 @@
+package com.cursorraffle.backend.config;
+
+import com.cursorraffle.backend.config.RateLimitProperties.Key;
+import com.cursorraffle.backend.config.RateLimitProperties.Rule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Per-client token-bucket rate limiting for the routes listed under
+ * {@code app.rate-limit.rules}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the bucket's
+ * theoretical arrival time (GCRA), so a decision is one read, one
+ * compare-and-set and no allocation. Buckets live in a
+ * {@link ConcurrentHashMap} per rule; a bucket that has fully refilled is
+ * indistinguishable from a new one and is evicted by a periodic sweep,
+ * which keeps the key space bounded by recently active clients.
+ * <p>
+ * Runs after the security chain so authenticated requests can be keyed by
+ * principal; anonymous ones are keyed by client IP. Behind a proxy, the IP
+ * is the rightmost {@code X-Forwarded-For} hop that is not one of
+ * {@code trusted-proxies}: entries to its left are whatever the client
+ * sent. Once {@code max-buckets} clients are tracked, new clients share one
+ * bucket per rule until eviction makes room, so a flood of fresh keys is
+ * throttled rather than let through.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter implements WebFilter, Ordered, SmartLifecycle {
+
+    private static final byte[] LIMITED_BODY =
+            "{\"message\":\"Çok fazla istek, lütfen biraz sonra tekrar deneyin.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitProperties properties;
+    private final List<Limiter> limiters;
+    private final List<Cidr> trustedProxies;
+    private final AtomicInteger bucketCount = new AtomicInteger();
+    private final Counter overflow;
+    private volatile Disposable evictionTimer;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.limiters = properties.getRules().stream()
+                .map(rule -> new Limiter(rule, parser.parse(rule.getPath()), meterRegistry))
+                .toList();
+        this.trustedProxies = properties.getTrustedProxies().stream().map(Cidr::parse).toList();
+        this.overflow = Counter.builder("rate.limit.overflow")
+                .description("Requests from new clients sharing the overflow bucket because max-buckets was reached")
+                .register(meterRegistry);
+        Gauge.builder("rate.limit.buckets", bucketCount, AtomicInteger::get)
+                .description("Client buckets currently tracked across all rules")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Limiter limiter = match(exchange.getRequest());
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+        Mono<String> clientKey = limiter.rule.getKey() == Key.PRINCIPAL
+                ? exchange.getPrincipal().map(Principal::getName).map(name -> "p:" + name)
+                        .switchIfEmpty(Mono.fromSupplier(() -> clientIp(exchange.getRequest())))
+                : Mono.just(clientIp(exchange.getRequest()));
+        return clientKey.flatMap(key -> {
+            long retryAfterNanos = limiter.acquire(key);
+            if (retryAfterNanos <= 0) {
+                return chain.filter(exchange);
+            }
+            return tooManyRequests(exchange.getResponse(), retryAfterNanos);
+        });
+    }
+
+    private Limiter match(ServerHttpRequest request) {
+        for (Limiter limiter : limiters) {
+            if (limiter.matches(request)) {
+                return limiter;
+            }
+        }
+        return null;
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        InetAddress client = remote == null ? null : remote.getAddress();
+        if (client == null) {
+            return "ip:unknown";
+        }
+        if (properties.isTrustForwardedFor() && isTrustedProxy(client)) {
+            // Walk back from the hop our proxy appended; stop at the first address no trusted proxy vouches for
+            List<String> forwarded = request.getHeaders().getValuesAsList("X-Forwarded-For");
+            for (int i = forwarded.size() - 1; i >= 0; i--) {
+                InetAddress hop = Cidr.literal(forwarded.get(i));
+                if (hop == null) {
+                    break;
+                }
+                client = hop;
+                if (!isTrustedProxy(hop)) {
+                    break;
+                }
+            }
+        }
+        return "ip:" + client.getHostAddress();
+    }
+
+    private boolean isTrustedProxy(InetAddress address) {
+        for (Cidr cidr : trustedProxies) {
+            if (cidr.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> tooManyRequests(ServerHttpResponse response, long retryAfterNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L))));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(LIMITED_BODY)));
+    }
+
+    /**
+     * Drops buckets that have refilled completely; recreating one later
+     * yields exactly the same state.
+     */
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Limiter limiter : limiters) {
+            limiter.buckets.entrySet().removeIf(entry -> {
+                boolean idle = entry.getValue().get() - now <= 0;
+                if (idle) {
+                    bucketCount.decrementAndGet();
+                }
+                return idle;
+            });
+        }
+    }
+
+    private final class Limiter {
+
+        private final Rule rule;
+        private final PathPattern pattern;
+        private final HttpMethod method;
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflowBucket = new AtomicLong(System.nanoTime());
+        private final Counter allowed;
+        private final Counter limited;
+
+        Limiter(Rule rule, PathPattern pattern, MeterRegistry meterRegistry) {
+            this.rule = rule;
+            this.pattern = pattern;
+            this.method = rule.getMethod() == null ? null : HttpMethod.valueOf(rule.getMethod());
+            this.emissionIntervalNanos = Math.max(1, rule.getRefillPeriod().toNanos() / rule.getRefillTokens());
+            this.burstNanos = emissionIntervalNanos * rule.getCapacity();
+            this.allowed = Counter.builder("rate.limit.decisions")
+                    .description("Rate limiter decisions by rule and outcome")
+                    .tag("rule", rule.getName())
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.limited = Counter.builder("rate.limit.decisions")
+                    .description("Rate limiter decisions by rule and outcome")
+                    .tag("rule", rule.getName())
+                    .tag("outcome", "limited")
+                    .register(meterRegistry);
+        }
+
+        boolean matches(ServerHttpRequest request) {
+            return (method == null || method.equals(request.getMethod()))
+                    && pattern.matches(request.getPath().pathWithinApplication());
+        }
+
+        /**
+         * Takes one token. Returns 0 when allowed, otherwise the nanoseconds
+         * until a token is available.
+         */
+        long acquire(String key) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null && bucketCount.get() >= properties.getMaxBuckets()) {
+                overflow.increment();
+                bucket = overflowBucket;
+            }
+            if (bucket == null) {
+                AtomicLong created = new AtomicLong(System.nanoTime());
+                bucket = buckets.putIfAbsent(key, created);
+                if (bucket == null) {
+                    bucket = created;
+                    bucketCount.incrementAndGet();
+                }
+            }
+            while (true) {
+                long now = System.nanoTime();
+                long arrival = bucket.get();
+                long next = (arrival - now > 0 ? arrival : now) + emissionIntervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    limited.increment();
+                    return excess;
+                }
+                if (bucket.compareAndSet(arrival, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * An address range in CIDR notation. Only IP literals are accepted, so
+     * matching a client-supplied value never triggers a DNS lookup.
+     */
+    private record Cidr(byte[] network, int prefix) {
+
+        private static final Pattern LITERAL = Pattern.compile("[0-9.]+|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+        static Cidr parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress address = literal(slash < 0 ? cidr : cidr.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Not an IP range: " + cidr);
+            }
+            int bits = address.getAddress().length * 8;
+            int prefix = slash < 0 ? bits : Integer.parseInt(cidr.substring(slash + 1).trim());
+            if (prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("Bad prefix length: " + cidr);
+            }
+            return new Cidr(address.getAddress(), prefix);
+        }
+
+        // The address, or null when the value is not an IP literal
+        static InetAddress literal(String value) {
+            String trimmed = value.trim();
+            if (!LITERAL.matcher(trimmed).matches()) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(trimmed);
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int full = prefix / 8;
+            for (int i = 0; i < full; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int rest = prefix % 8;
+            int mask = (0xFF << (8 - rest)) & 0xFF;
+            return rest == 0 || (bytes[full] & mask) == (network[full] & mask);
+        }
+    }
+
+    /** Right after the security chain, which runs at -100. */
+    @Override
+    public int getOrder() {
+        return -99;
+    }
+
+    @Override
+    public void start() {
+        evictionTimer = Flux.interval(properties.getEvictionInterval(), properties.getEvictionInterval(), Schedulers.parallel())
+                .onBackpressureDrop()
+                .subscribe(tick -> evictIdle(), e -> log.error("Rate limit bucket eviction failed", e));
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = evictionTimer;
+        if (timer != null) {
+            timer.dispose();
+            evictionTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return evictionTimer != null;
+    }
+}
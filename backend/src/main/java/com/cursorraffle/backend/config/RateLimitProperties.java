@@ -0,0 +1,41 @@
+package com.cursorraffle.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route-specific token-bucket limits from {@code app.rate-limit.*}.
+ * The first rule matching a request's method and path applies.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private boolean trustForwardedFor = false;
+    // Proxies whose X-Forwarded-For entries are believed, as CIDRs; the client is the rightmost hop not in this list
+    private List<String> trustedProxies = new ArrayList<>(List.of(
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "127.0.0.0/8", "::1/128", "fc00::/7"));
+    private int maxBuckets = 100_000;
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String method; // null matches any method
+        private String path;   // Spring path pattern, e.g. /api/auth/register/**
+        private Key key = Key.IP;
+        private int capacity = 10;
+        private int refillTokens = 10;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+
+    public enum Key {
+        IP, PRINCIPAL
+    }
+}
@@ -0,0 +1,161 @@
+package com.cursorraffle.backend.config;
+
+import com.cursorraffle.backend.handler.AuthHandler.LoginResponse;
+import com.cursorraffle.backend.repository.AdminRepository.AdminProfile;
+import com.cursorraffle.backend.repository.AdvertiserRepository.AdvertiserSummary;
+import com.cursorraffle.backend.repository.StatusUpdateRepository.AdvertiserVerification;
+import com.cursorraffle.backend.repository.UserRepository.UserProfile;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written Jackson serializers for the read models returned by the auth
+ * and admin endpoints. Field names are encoded once up front and each field
+ * is written directly, so a response skips bean introspection and property
+ * lookup and can only ever contain the fields listed here.
+ */
+@Configuration
+public class ReadModelJsonConfig {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString SURNAME = new SerializedString("surname");
+    private static final SerializedString PHONE = new SerializedString("phone");
+    private static final SerializedString ROLE = new SerializedString("role");
+    private static final SerializedString COMPANY_NAME = new SerializedString("companyName");
+    private static final SerializedString INDUSTRY = new SerializedString("industry");
+    private static final SerializedString CONTACT_EMAIL = new SerializedString("contactEmail");
+    private static final SerializedString LOGO_URL = new SerializedString("logoUrl");
+    private static final SerializedString IS_VERIFIED = new SerializedString("isVerified");
+    private static final SerializedString WAS_VERIFIED = new SerializedString("wasVerified");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString TOKEN = new SerializedString("token");
+    private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+    private static final SerializedString USER = new SerializedString("user");
+
+    /** Picked up by Spring Boot and registered on the shared ObjectMapper. */
+    @Bean
+    public Module readModelModule() {
+        SimpleModule module = new SimpleModule("read-models");
+        module.addSerializer(new Writer<>(UserProfile.class) {
+            @Override
+            void fields(UserProfile user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                number(gen, ID, user.id());
+                string(gen, EMAIL, user.email());
+                string(gen, ROLE, user.role());
+                string(gen, NAME, user.name());
+                string(gen, SURNAME, user.surname());
+                string(gen, PHONE, user.phone());
+            }
+        });
+        module.addSerializer(new Writer<>(AdminProfile.class) {
+            @Override
+            void fields(AdminProfile admin, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                number(gen, ID, admin.id());
+                string(gen, EMAIL, admin.email());
+                string(gen, NAME, admin.name());
+                string(gen, SURNAME, admin.surname());
+                string(gen, PHONE, admin.phone());
+            }
+        });
+        module.addSerializer(new Writer<>(AdvertiserSummary.class) {
+            @Override
+            void fields(AdvertiserSummary advertiser, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                number(gen, ID, advertiser.id());
+                string(gen, COMPANY_NAME, advertiser.companyName());
+                string(gen, INDUSTRY, advertiser.industry());
+                string(gen, CONTACT_EMAIL, advertiser.contactEmail());
+                string(gen, LOGO_URL, advertiser.logoUrl());
+                bool(gen, IS_VERIFIED, advertiser.isVerified());
+                dateTime(gen, CREATED_AT, advertiser.createdAt());
+            }
+        });
+        module.addSerializer(new Writer<>(AdvertiserVerification.class) {
+            @Override
+            void fields(AdvertiserVerification advertiser, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                number(gen, ID, advertiser.id());
+                string(gen, COMPANY_NAME, advertiser.companyName());
+                string(gen, CONTACT_EMAIL, advertiser.contactEmail());
+                bool(gen, IS_VERIFIED, advertiser.isVerified());
+                bool(gen, WAS_VERIFIED, advertiser.wasVerified());
+                dateTime(gen, UPDATED_AT, advertiser.updatedAt());
+            }
+        });
+        module.addSerializer(new Writer<>(LoginResponse.class) {
+            @Override
+            void fields(LoginResponse login, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                string(gen, TOKEN, login.token());
+                string(gen, REFRESH_TOKEN, login.refreshToken());
+                string(gen, ROLE, login.role());
+                gen.writeFieldName(USER);
+                provider.defaultSerializeValue(login.user(), gen);
+            }
+        });
+        return module;
+    }
+
+    private abstract static class Writer<T> extends StdSerializer<T> {
+
+        Writer(Class<T> type) {
+            super(type);
+        }
+
+        @Override
+        public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            fields(value, gen, provider);
+            gen.writeEndObject();
+        }
+
+        abstract void fields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+    }
+
+    private static void string(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void number(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void bool(JsonGenerator gen, SerializableString name, Boolean value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(value);
+        }
+    }
+
+    private static void dateTime(JsonGenerator gen, SerializableString name, LocalDateTime value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.cursorraffle.backend.config;
 
 import com.cursorraffle.backend.handler.AdminHandler;
 import com.cursorraffle.backend.handler.AuthHandler;
+import com.cursorraffle.backend.handler.ImpressionHandler;
+import com.cursorraffle.backend.handler.MediaHandler;
+import com.cursorraffle.backend.handler.RaffleHandler;
 import com.cursorraffle.backend.handler.SponsorshipHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,23 +19,62 @@ import static org.springframework.web.reactive.function.server.RouterFunctions.r
 public class RouterConfig {
 
     @Bean
-    public RouterFunction<ServerResponse> authRoutes(AuthHandler authHandler) {
+    public RouterFunction<ServerResponse> authRoutes(AuthHandler authHandler, RouteMetricsFilter routeMetrics) {
         return route(POST("/api/auth/login").and(accept(MediaType.APPLICATION_JSON)), authHandler::login)
+                .andRoute(POST("/api/auth/refresh").and(accept(MediaType.APPLICATION_JSON)), authHandler::refresh)
                 .andRoute(POST("/api/auth/register/advertiser").and(accept(MediaType.APPLICATION_JSON)), authHandler::registerAdvertiser)
                 .andRoute(POST("/api/auth/register/user").and(accept(MediaType.APPLICATION_JSON)), authHandler::registerUser)
-                .andRoute(POST("/api/auth/register/admin").and(accept(MediaType.APPLICATION_JSON)), authHandler::registerAdmin);
+                .andRoute(POST("/api/auth/register/admin").and(accept(MediaType.APPLICATION_JSON)), authHandler::registerAdmin)
+                .filter(routeMetrics);
     }
 
     @Bean
-    public RouterFunction<ServerResponse> adminRoutes(AdminHandler adminHandler) {
+    public RouterFunction<ServerResponse> adminRoutes(AdminHandler adminHandler, RouteMetricsFilter routeMetrics) {
         return route(GET("/api/admin/analytics"), adminHandler::getAnalytics)
                 .andRoute(GET("/api/admin/advertisers/pending"), adminHandler::getPendingAdvertisers)
-                .andRoute(PUT("/api/admin/advertisers/{id}/approve"), adminHandler::approveAdvertiser);
+                .andRoute(PUT("/api/admin/advertisers/{id}/approve"), adminHandler::approveAdvertiser)
+                .andRoute(PUT("/api/admin/advertisers/approve").and(accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)), adminHandler::approveAdvertisers)
+                .andRoute(PUT("/api/admin/advertisers/reject").and(accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)), adminHandler::rejectAdvertisers)
+                .andRoute(GET("/api/admin/sponsorships/leading-bid"), adminHandler::getLeadingBid)
+                .andRoute(PUT("/api/admin/sponsorships/{id}/approve"), adminHandler::approveSponsorship)
+                .andRoute(PUT("/api/admin/sponsorships/{id}/reject"), adminHandler::rejectSponsorship)
+                .andRoute(PUT("/api/admin/sponsorships/approve").and(accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)), adminHandler::approveSponsorships)
+                .andRoute(PUT("/api/admin/sponsorships/reject").and(accept(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)), adminHandler::rejectSponsorships)
+                .filter(routeMetrics);
     }
 
     @Bean
-    public RouterFunction<ServerResponse> sponsorshipRoutes(SponsorshipHandler sponsorshipHandler) {
+    public RouterFunction<ServerResponse> sponsorshipRoutes(SponsorshipHandler sponsorshipHandler, RouteMetricsFilter routeMetrics) {
         return route(POST("/api/sponsorship/apply").and(accept(MediaType.APPLICATION_JSON)), sponsorshipHandler::createApplication)
-                .andRoute(GET("/api/sponsorship/active"), sponsorshipHandler::getActiveSponsorships);
+                .andRoute(GET("/api/sponsorship/active"), sponsorshipHandler::getActiveSponsorships)
+                .andRoute(GET("/api/sponsorship/live"), sponsorshipHandler::getLiveSponsors)
+                .andRoute(PUT("/api/sponsorship/applications/{id}/bid").and(accept(MediaType.APPLICATION_JSON)), sponsorshipHandler::updateBid)
+                .filter(routeMetrics);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> impressionRoutes(ImpressionHandler impressionHandler, RouteMetricsFilter routeMetrics) {
+        return route(POST("/api/impressions").and(accept(MediaType.APPLICATION_JSON)), impressionHandler::recordImpression)
+                .andRoute(POST("/api/impressions/batch").and(accept(MediaType.APPLICATION_JSON)), impressionHandler::recordImpressions)
+                .filter(routeMetrics);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> raffleRoutes(RaffleHandler raffleHandler, RouteMetricsFilter routeMetrics) {
+        return route(POST("/api/admin/raffle/draw").and(accept(MediaType.APPLICATION_JSON)), raffleHandler::draw)
+                .andRoute(POST("/api/ads/views"), raffleHandler::startView)
+                .andRoute(POST("/api/ads/views/{sessionId}/complete"), raffleHandler::completeView)
+                .andRoute(GET("/api/raffle/leaderboard"), raffleHandler::getLeaderboard)
+                .filter(routeMetrics);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> mediaRoutes(MediaHandler mediaHandler, RouteMetricsFilter routeMetrics) {
+        return route(POST("/api/media/uploads").and(accept(MediaType.APPLICATION_JSON)), mediaHandler::createUpload)
+                .andRoute(HEAD("/api/media/uploads/{id}"), mediaHandler::getUploadOffset)
+                .andRoute(PATCH("/api/media/uploads/{id}"), mediaHandler::appendChunk)
+                .andRoute(DELETE("/api/media/uploads/{id}"), mediaHandler::cancelUpload)
+                .andRoute(GET("/api/media/{id}"), mediaHandler::getMedia)
+                .filter(routeMetrics);
     }
 }
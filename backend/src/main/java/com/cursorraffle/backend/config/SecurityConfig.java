@@ -1,16 +1,30 @@
 package com.cursorraffle.backend.config;
 
+import com.cursorraffle.backend.service.TokenService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -19,23 +33,63 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder jwtDecoder) {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeExchange(exchanges -> exchanges
+                        // Only an existing admin may create another; must precede the /api/auth/** permitAll
+                        .pathMatchers(HttpMethod.POST, "/api/auth/register/admin").hasRole("ADMIN")
                         .pathMatchers("/api/auth/**", "/api/time/**", "/actuator/**").permitAll()
+                        .pathMatchers("/api/admin/**").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.POST, "/api/sponsorship/apply").hasAnyRole("ADVERTISER", "ADMIN")
+                        .pathMatchers(HttpMethod.PUT, "/api/sponsorship/applications/*/bid").hasAnyRole("ADVERTISER", "ADMIN")
+                        .pathMatchers("/api/media/uploads/**").hasAnyRole("ADVERTISER", "ADMIN")
+                        .pathMatchers(HttpMethod.POST, "/api/ads/views", "/api/ads/views/*/complete").hasRole("USER")
+                        // Viewers' impressions come from completed view sessions; the raw routes are for trusted backfills
+                        .pathMatchers(HttpMethod.POST, "/api/impressions", "/api/impressions/batch").hasRole("ADMIN")
                         .anyExchange().permitAll() // For demo simplicity allow all, normally authenticate
                 )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(jwtDecoder)
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter())))
                 .build();
     }
 
+    @Bean
+    public SecretKey jwtSigningKey(@Value("${spring.security.jwt.secret}") String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey jwtSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(jwtSigningKey));
+    }
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(SecretKey jwtSigningKey,
+                                         @Value("${spring.security.jwt.verified-cache.max-size:10000}") long cacheSize,
+                                         @Value("${spring.security.jwt.verified-cache.ttl:5m}") Duration cacheTtl) {
+        return new CachingJwtDecoder(TokenService.decoder(jwtSigningKey, TokenService.ACCESS_TYPE), cacheSize, cacheTtl);
+    }
+
+    private ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(TokenService.ROLES_CLAIM);
+        authorities.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
+    }
+
     @Bean
     public UrlBasedCorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration corsConfig = new CorsConfiguration();
         corsConfig.setAllowedOrigins(Arrays.asList("*")); // Allow all origins for development
         corsConfig.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         corsConfig.setAllowedHeaders(Arrays.asList("*"));
+        corsConfig.setExposedHeaders(Arrays.asList("X-Next-Cursor")); // Keyset paging cursor, read by the admin screens
         corsConfig.setAllowCredentials(false); // Set to false when using wildcard origins
         corsConfig.setMaxAge(3600L);
 
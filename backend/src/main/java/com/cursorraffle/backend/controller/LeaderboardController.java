@@ -0,0 +1,37 @@
+package com.cursorraffle.backend.controller;
+
+import com.cursorraffle.backend.service.TicketTallyService;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/raffle/leaderboard")
+public class LeaderboardController {
+
+    private final TicketTallyService ticketTallyService;
+
+    public LeaderboardController(TicketTallyService ticketTallyService) {
+        this.ticketTallyService = ticketTallyService;
+    }
+
+    /**
+     * SSE feed of {@code rank-changed} events: the ranks that moved since the
+     * previous flush plus the current top of the board. A new client gets the
+     * latest frame immediately.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<Void> streamRankChanges(ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.getHeaders().setCacheControl(CacheControl.noStore());
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeAndFlushWith(ticketTallyService.rankChangeFrames()
+                .map(frame -> Flux.just(bufferFactory.wrap(frame))));
+    }
+}
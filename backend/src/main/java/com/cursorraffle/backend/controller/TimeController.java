@@ -1,38 +1,57 @@
 package com.cursorraffle.backend.controller;
 
+import com.cursorraffle.backend.service.ServerEventService;
 import com.cursorraffle.backend.service.TimeService;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
-
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/time")
 public class TimeController {
 
     private final TimeService timeService;
+    private final ServerEventService serverEventService;
 
-    public TimeController(TimeService timeService) {
+    public TimeController(TimeService timeService, ServerEventService serverEventService) {
         this.timeService = timeService;
+        this.serverEventService = serverEventService;
     }
 
     /**
      * Returns a continuous stream of server time events (SSE).
      * This is perfect for syncing client countdowns with server time.
+     * Frames are encoded once by {@link TimeService} and written as-is, so
+     * each client only costs a buffer wrapper per tick.
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<Map<String, String>> streamServerTime() {
-        return timeService.getServerTimeStream()
-                .map(instant -> Map.of(
-                        "iso", instant.toString(),
-                        "epoch", String.valueOf(instant.toEpochMilli())
-                ));
+    public Mono<Void> streamServerTime(ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.getHeaders().setCacheControl(CacheControl.noStore());
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeAndFlushWith(timeService.getServerTimeFrames()
+                .map(frame -> Flux.just(bufferFactory.wrap(frame))));
     }
-}
 
+    /**
+     * Multiplexed SSE stream: {@code tick} events plus sprint, sponsor and
+     * analytics events. Reconnecting clients send {@code Last-Event-ID} and
+     * receive only the events they missed.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<Void> streamServerEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                         ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.getHeaders().setCacheControl(CacheControl.noStore());
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeAndFlushWith(serverEventService.stream(lastEventId)
+                .map(frame -> Flux.just(bufferFactory.wrap(frame))));
+    }
+}
@@ -1,68 +1,202 @@
 package com.cursorraffle.backend.handler;
 
-import com.cursorraffle.backend.model.Advertiser;
 import com.cursorraffle.backend.model.SponsorshipApplication;
 import com.cursorraffle.backend.repository.AdvertiserRepository;
+import com.cursorraffle.backend.repository.AdvertiserRepository.AdvertiserSummary;
 import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import com.cursorraffle.backend.repository.StatusUpdateRepository;
+import com.cursorraffle.backend.repository.StatusUpdateRepository.AdvertiserVerification;
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.cursorraffle.backend.service.CredentialService;
+import com.cursorraffle.backend.service.ServerEventService;
+import com.cursorraffle.backend.service.SponsorshipAuctionService;
+import com.cursorraffle.backend.service.SponsorshipStatusService;
 import lombok.Data;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class AdminHandler {
 
+    static final int MAX_BULK_IDS = 500;
+
     private final AdvertiserRepository advertiserRepository;
     private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final StatusUpdateRepository statusUpdateRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final CredentialService credentialService;
+    private final ServerEventService serverEventService;
+    private final SponsorshipStatusService sponsorshipStatusService;
+    private final SponsorshipAuctionService sponsorshipAuctionService;
 
-    public AdminHandler(AdvertiserRepository advertiserRepository, SponsorshipApplicationRepository sponsorshipRepository) {
+    public AdminHandler(AdvertiserRepository advertiserRepository, SponsorshipApplicationRepository sponsorshipRepository,
+                        StatusUpdateRepository statusUpdateRepository, AnalyticsRollupService analyticsRollupService, CredentialService credentialService,
+                        ServerEventService serverEventService, SponsorshipStatusService sponsorshipStatusService,
+                        SponsorshipAuctionService sponsorshipAuctionService) {
         this.advertiserRepository = advertiserRepository;
         this.sponsorshipRepository = sponsorshipRepository;
+        this.statusUpdateRepository = statusUpdateRepository;
+        this.analyticsRollupService = analyticsRollupService;
+        this.credentialService = credentialService;
+        this.serverEventService = serverEventService;
+        this.sponsorshipStatusService = sponsorshipStatusService;
+        this.sponsorshipAuctionService = sponsorshipAuctionService;
     }
 
     public Mono<ServerResponse> getAnalytics(ServerRequest request) {
-        return advertiserRepository.count()
-                .flatMap(totalAdvertisers -> 
-                    sponsorshipRepository.count()
-                            .flatMap(totalApplications -> 
-                                ServerResponse.ok()
-                                        .contentType(MediaType.APPLICATION_JSON)
-                                        .bodyValue(Map.of(
-                                                "totalAdvertisers", totalAdvertisers,
-                                                "totalApplications", totalApplications,
-                                                "totalImpressions", 0, // TODO: Calculate from ad views
-                                                "sprintImpressions", Map.of() // TODO: Group by sprint
-                                        ))
-                            )
-                );
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(analyticsRollupService.snapshot());
     }
 
+    /**
+     * Verifies one advertiser, writing only {@code is_verified} and
+     * {@code updated_at}.
+     */
     public Mono<ServerResponse> approveAdvertiser(ServerRequest request) {
         Long advertiserId = Long.parseLong(request.pathVariable("id"));
-        return advertiserRepository.findById(advertiserId)
-                .flatMap(advertiser -> {
-                    advertiser.setIsVerified(true);
-                    advertiser.setUpdatedAt(LocalDateTime.now());
-                    return advertiserRepository.save(advertiser)
-                            .flatMap(saved -> ServerResponse.ok()
-                                    .contentType(MediaType.APPLICATION_JSON)
-                                    .bodyValue(saved));
-                })
+        return setVerified(List.of(advertiserId), true)
+                .singleOrEmpty()
+                .flatMap(saved -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(saved))
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
-    public Mono<ServerResponse> getPendingAdvertisers(ServerRequest request) {
-        return advertiserRepository.findAll()
-                .filter(adv -> !Boolean.TRUE.equals(adv.getIsVerified()))
-                .collectList()
-                .flatMap(list -> ServerResponse.ok()
+    public Mono<ServerResponse> approveAdvertisers(ServerRequest request) {
+        return bulk(request, ids -> setVerified(ids, true), AdvertiserVerification.class);
+    }
+
+    public Mono<ServerResponse> rejectAdvertisers(ServerRequest request) {
+        return bulk(request, ids -> setVerified(ids, false), AdvertiserVerification.class);
+    }
+
+    private Flux<AdvertiserVerification> setVerified(Collection<Long> ids, boolean verified) {
+        AtomicInteger changed = new AtomicInteger();
+        return statusUpdateRepository.setAdvertisersVerified(ids, verified)
+                .doOnNext(saved -> {
+                    credentialService.invalidate(saved.contactEmail());
+                    if (saved.wasVerified() != verified) {
+                        if (verified) {
+                            analyticsRollupService.advertiserVerified();
+                        } else {
+                            analyticsRollupService.advertiserUnverified();
+                        }
+                        changed.incrementAndGet();
+                    }
+                })
+                .doOnComplete(() -> {
+                    if (changed.get() > 0) {
+                        serverEventService.publish(ServerEventService.ANALYTICS_DELTA,
+                                Map.of("metric", "verifiedAdvertisers", "delta", verified ? changed.get() : -changed.get()));
+                    }
+                });
+    }
+
+    public Mono<ServerResponse> approveSponsorship(ServerRequest request) {
+        return transitionSponsorship(request, "APPROVED");
+    }
+
+    public Mono<ServerResponse> rejectSponsorship(ServerRequest request) {
+        return transitionSponsorship(request, "REJECTED");
+    }
+
+    public Mono<ServerResponse> approveSponsorships(ServerRequest request) {
+        return bulk(request, ids -> transitionSponsorships(ids, "APPROVED"), SponsorshipApplication.class);
+    }
+
+    public Mono<ServerResponse> rejectSponsorships(ServerRequest request) {
+        return bulk(request, ids -> transitionSponsorships(ids, "REJECTED"), SponsorshipApplication.class);
+    }
+
+    /**
+     * Leading bid of the open auction for slot {@code ?type=&startDate=}, as
+     * settlement would pick it now; 404 when the slot has no open bids.
+     */
+    public Mono<ServerResponse> getLeadingBid(ServerRequest request) {
+        Optional<String> type = request.queryParam("type");
+        Optional<String> startDate = request.queryParam("startDate");
+        if (type.isEmpty() || startDate.isEmpty()) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "type ve startDate zorunludur."));
+        }
+        LocalDateTime start;
+        try {
+            start = LocalDateTime.parse(startDate.get());
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz tarih: " + e.getParsedString()));
+        }
+        return sponsorshipAuctionService.leadingBid(type.get(), start)
+                .map(bid -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(bid))
+                .orElseGet(() -> ServerResponse.notFound().build());
+    }
+
+    private Flux<SponsorshipApplication> transitionSponsorships(Set<Long> ids, String status) {
+        return sponsorshipStatusService.transitionAll(ids, status)
+                .doOnNext(sponsorshipAuctionService::withdraw);
+    }
+
+    /**
+     * Runs a set-based update for the ids in {@code {"ids": [...]}} and
+     * streams the updated rows back as they are returned, as NDJSON when the
+     * client accepts it and as a JSON array otherwise.
+     */
+    private static <T> Mono<ServerResponse> bulk(ServerRequest request,
+                                                 Function<Set<Long>, Flux<T>> update,
+                                                 Class<T> type) {
+        return request.bodyToMono(BulkRequest.class)
+                .flatMap(body -> {
+                    Set<Long> ids = body.getIds() == null ? Set.of() : body.getIds().stream()
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+                    if (ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+                        return ServerResponse.badRequest()
+                                .bodyValue(Map.of("message", "ids 1 ile " + MAX_BULK_IDS + " arasında kayıt içermelidir."));
+                    }
+                    return ServerResponse.ok()
+                            .contentType(KeysetPagination.wantsStream(request) ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                            .body(update.apply(ids), type);
+                })
+                .switchIfEmpty(ServerResponse.badRequest().bodyValue(Map.of("message", "ids zorunludur.")));
+    }
+
+    private Mono<ServerResponse> transitionSponsorship(ServerRequest request, String status) {
+        Long applicationId = Long.parseLong(request.pathVariable("id"));
+        return sponsorshipStatusService.transition(applicationId, status)
+                .doOnNext(sponsorshipAuctionService::withdraw)
+                .flatMap(saved -> ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(list));
+                        .bodyValue(saved))
+                .switchIfEmpty(ServerResponse.notFound().build())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> ServerResponse.status(HttpStatus.CONFLICT)
+                        .bodyValue(Map.of("message", "Başvuru başka bir işlem tarafından güncellendi, lütfen tekrar deneyin.")));
+    }
+
+    public Mono<ServerResponse> getPendingAdvertisers(ServerRequest request) {
+        return KeysetPagination.respond(request, AdvertiserSummary.class,
+                advertiserRepository::findUnverifiedAfter, AdvertiserSummary::id);
     }
-}
 
+    @Data
+    static class BulkRequest {
+        private List<Long> ids;
+    }
+}
@@ -4,12 +4,21 @@ import com.cursorraffle.backend.model.Admin;
 import com.cursorraffle.backend.model.Advertiser;
 import com.cursorraffle.backend.model.User;
 import com.cursorraffle.backend.repository.AdminRepository;
+import com.cursorraffle.backend.repository.AdminRepository.AdminProfile;
 import com.cursorraffle.backend.repository.AdvertiserRepository;
+import com.cursorraffle.backend.repository.AdvertiserRepository.AdvertiserSummary;
+import com.cursorraffle.backend.repository.CredentialRepository.Credential;
 import com.cursorraffle.backend.repository.UserRepository;
+import com.cursorraffle.backend.repository.UserRepository.UserProfile;
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.cursorraffle.backend.service.CredentialService;
+import com.cursorraffle.backend.service.PasswordHashingService;
+import com.cursorraffle.backend.service.PasswordHashingService.HashingSaturatedException;
+import com.cursorraffle.backend.service.TokenService;
 import lombok.Data;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
@@ -24,112 +33,150 @@ public class AuthHandler {
     private final UserRepository userRepository;
     private final AdvertiserRepository advertiserRepository;
     private final AdminRepository adminRepository;
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final AnalyticsRollupService analyticsRollupService;
+    private final PasswordHashingService passwordHashingService;
+    private final CredentialService credentialService;
+    private final TokenService tokenService;
 
-    public AuthHandler(UserRepository userRepository, AdvertiserRepository advertiserRepository, AdminRepository adminRepository) {
+    public AuthHandler(UserRepository userRepository, AdvertiserRepository advertiserRepository, AdminRepository adminRepository,
+                       AnalyticsRollupService analyticsRollupService, PasswordHashingService passwordHashingService,
+                       CredentialService credentialService, TokenService tokenService) {
         this.userRepository = userRepository;
         this.advertiserRepository = advertiserRepository;
         this.adminRepository = adminRepository;
+        this.analyticsRollupService = analyticsRollupService;
+        this.passwordHashingService = passwordHashingService;
+        this.credentialService = credentialService;
+        this.tokenService = tokenService;
     }
 
     public Mono<ServerResponse> login(ServerRequest request) {
         return request.bodyToMono(LoginRequest.class)
-                .flatMap(loginRequest -> {
-                    // 1. Try Admin first
-                    return adminRepository.findByEmail(loginRequest.getEmail())
-                            .filter(admin -> passwordEncoder.matches(loginRequest.getPassword(), admin.getPassword()))
-                            .flatMap(admin -> ServerResponse.ok()
-                                    .contentType(MediaType.APPLICATION_JSON)
-                                    .bodyValue(Map.of(
-                                            "token", "mock-jwt-token-admin-" + admin.getId(),
-                                            "role", "admin",
-                                            "user", admin
-                                    )))
-                            .switchIfEmpty(
-                                    // 2. Try Advertiser
-                                    advertiserRepository.findByContactEmail(loginRequest.getEmail())
-                                            .filter(adv -> passwordEncoder.matches(loginRequest.getPassword(), adv.getPassword()))
-                                            .flatMap(adv -> {
-                                                if (!Boolean.TRUE.equals(adv.getIsVerified())) {
-                                                    return ServerResponse.badRequest()
-                                                            .bodyValue(Map.of("message", "Hesabınız henüz onaylanmamıştır. Lütfen yönetici onayını bekleyin."));
-                                                }
-                                                return ServerResponse.ok()
-                                                        .contentType(MediaType.APPLICATION_JSON)
-                                                        .bodyValue(Map.of(
-                                                                "token", "mock-jwt-token-advertiser-" + adv.getId(),
-                                                                "role", "advertiser",
-                                                                "user", adv
-                                                        ));
-                                            })
-                            )
-                            .switchIfEmpty(
-                                    // 3. Try User
-                                    userRepository.findByEmail(loginRequest.getEmail())
-                                            .filter(u -> passwordEncoder.matches(loginRequest.getPassword(), u.getPassword()))
-                                            .flatMap(u -> ServerResponse.ok()
-                                                    .contentType(MediaType.APPLICATION_JSON)
-                                                    .bodyValue(Map.of(
-                                                            "token", "mock-jwt-token-user-" + u.getId(),
-                                                            "role", "user",
-                                                            "user", u
-                                                    )))
-                            )
-                            .switchIfEmpty(ServerResponse.badRequest().bodyValue(Map.of("message", "E-posta veya şifre hatalı.")));
-                });
+                .flatMap(loginRequest -> credentialService.findByEmail(loginRequest.getEmail())
+                        .filterWhen(credential -> passwordHashingService.matches(loginRequest.getPassword(), credential.passwordHash()))
+                        .flatMap(credential -> loginResponse(credential, loginRequest.getEmail()))
+                        .switchIfEmpty(ServerResponse.badRequest().bodyValue(Map.of("message", "E-posta veya şifre hatalı."))))
+                .onErrorResume(HashingSaturatedException.class, e -> tooManyRequests());
+    }
+
+    private Mono<ServerResponse> loginResponse(Credential credential, String email) {
+        if ("advertiser".equals(credential.role()) && !credential.verified()) {
+            return ServerResponse.badRequest()
+                    .bodyValue(Map.of("message", "Hesabınız henüz onaylanmamıştır. Lütfen yönetici onayını bekleyin."));
+        }
+        Mono<?> principal = switch (credential.role()) {
+            case "admin" -> adminRepository.findProfileById(credential.id());
+            case "advertiser" -> advertiserRepository.findSummaryById(credential.id());
+            default -> userRepository.findProfileById(credential.id());
+        };
+        return principal.flatMap(user -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginResponse(
+                        tokenService.issueAccessToken(credential.role(), credential.id(), email),
+                        tokenService.issueRefreshToken(credential.role(), credential.id(), email),
+                        credential.role(),
+                        user)));
+    }
+
+    public Mono<ServerResponse> refresh(ServerRequest request) {
+        return request.bodyToMono(RefreshRequest.class)
+                .flatMap(refreshRequest -> tokenService.refreshAccessToken(refreshRequest.getRefreshToken()))
+                .flatMap(token -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("token", token)))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.UNAUTHORIZED)
+                        .bodyValue(Map.of("message", "Oturum süresi doldu, lütfen tekrar giriş yapın.")));
     }
 
     public Mono<ServerResponse> registerAdvertiser(ServerRequest request) {
         return request.bodyToMono(Advertiser.class)
                 .flatMap(advertiser -> {
                     // Check if email exists
-                    return advertiserRepository.findByContactEmail(advertiser.getContactEmail())
-                            .flatMap(existing -> ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı.")))
-                            .switchIfEmpty(Mono.defer(() -> {
-                                advertiser.setCreatedAt(LocalDateTime.now());
-                                advertiser.setUpdatedAt(LocalDateTime.now());
-                                advertiser.setIsVerified(false); // Needs admin approval
-                                advertiser.setPassword(passwordEncoder.encode(advertiser.getPassword()));
-                                
-                                return advertiserRepository.save(advertiser)
-                                        .flatMap(saved -> ServerResponse.ok()
-                                                .contentType(MediaType.APPLICATION_JSON)
-                                                .bodyValue(saved));
-                            }));
-                });
+                    return advertiserRepository.existsByContactEmail(advertiser.getContactEmail())
+                            .flatMap(exists -> exists
+                                    ? ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı."))
+                                    : Mono.defer(() -> {
+                                        advertiser.setId(null); // Always an insert, never an update of someone else
+                                        advertiser.setCreatedAt(LocalDateTime.now());
+                                        advertiser.setUpdatedAt(LocalDateTime.now());
+                                        advertiser.setIsVerified(false); // Needs admin approval
+
+                                        return passwordHashingService.encode(advertiser.getPassword())
+                                                .flatMap(hash -> {
+                                                    advertiser.setPassword(hash);
+                                                    return advertiserRepository.save(advertiser);
+                                                })
+                                                .doOnNext(saved -> {
+                                                    credentialService.invalidate(saved.getContactEmail());
+                                                    analyticsRollupService.advertiserRegistered(saved.getIsVerified());
+                                                })
+                                                .flatMap(saved -> ServerResponse.ok()
+                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                        .bodyValue(AdvertiserSummary.of(saved)));
+                                    }));
+                })
+                .onErrorResume(HashingSaturatedException.class, e -> tooManyRequests());
     }
     
     public Mono<ServerResponse> registerUser(ServerRequest request) {
          return request.bodyToMono(User.class)
                 .flatMap(user -> {
-                    return userRepository.findByEmail(user.getEmail())
-                            .flatMap(existing -> ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı.")))
-                            .switchIfEmpty(Mono.defer(() -> {
-                                user.setRole("USER"); // Always USER for public registration
-                                user.setPassword(passwordEncoder.encode(user.getPassword()));
-                                return userRepository.save(user)
-                                        .flatMap(saved -> ServerResponse.ok()
-                                                .contentType(MediaType.APPLICATION_JSON)
-                                                .bodyValue(saved));
-                            }));
-                });
+                    return userRepository.existsByEmail(user.getEmail())
+                            .flatMap(exists -> exists
+                                    ? ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı."))
+                                    : Mono.defer(() -> {
+                                        user.setId(null); // Always an insert, never an update of someone else
+                                        user.setRole("USER"); // Always USER for public registration
+                                        user.setRaffleMultiplier(null); // Granted by the server only
+                                        return passwordHashingService.encode(user.getPassword())
+                                                .flatMap(hash -> {
+                                                    user.setPassword(hash);
+                                                    return userRepository.save(user);
+                                                })
+                                                .doOnNext(saved -> credentialService.invalidate(saved.getEmail()))
+                                                .flatMap(saved -> ServerResponse.ok()
+                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                        .bodyValue(UserProfile.of(saved)));
+                                    }));
+                })
+                .onErrorResume(HashingSaturatedException.class, e -> tooManyRequests());
     }
 
     public Mono<ServerResponse> registerAdmin(ServerRequest request) {
         return request.bodyToMono(Admin.class)
                 .flatMap(admin -> {
-                    return adminRepository.findByEmail(admin.getEmail())
-                            .flatMap(existing -> ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı.")))
-                            .switchIfEmpty(Mono.defer(() -> {
-                                admin.setCreatedAt(LocalDateTime.now());
-                                admin.setUpdatedAt(LocalDateTime.now());
-                                admin.setPassword(passwordEncoder.encode(admin.getPassword()));
-                                return adminRepository.save(admin)
-                                        .flatMap(saved -> ServerResponse.ok()
-                                                .contentType(MediaType.APPLICATION_JSON)
-                                                .bodyValue(saved));
-                            }));
-                });
+                    return adminRepository.existsByEmail(admin.getEmail())
+                            .flatMap(exists -> exists
+                                    ? ServerResponse.badRequest().bodyValue(Map.of("message", "Bu e-posta adresi zaten kayıtlı."))
+                                    : Mono.defer(() -> {
+                                        admin.setId(null); // Always an insert, never an update of someone else
+                                        admin.setCreatedAt(LocalDateTime.now());
+                                        admin.setUpdatedAt(LocalDateTime.now());
+                                        return passwordHashingService.encode(admin.getPassword())
+                                                .flatMap(hash -> {
+                                                    admin.setPassword(hash);
+                                                    return adminRepository.save(admin);
+                                                })
+                                                .doOnNext(saved -> credentialService.invalidate(saved.getEmail()))
+                                                .flatMap(saved -> ServerResponse.ok()
+                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                        .bodyValue(AdminProfile.of(saved)));
+                                    }));
+                })
+                .onErrorResume(HashingSaturatedException.class, e -> tooManyRequests());
+    }
+
+    private Mono<ServerResponse> tooManyRequests() {
+        return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("message", "Sunucu şu anda yoğun, lütfen birkaç saniye sonra tekrar deneyin."));
+    }
+
+    /**
+     * Login body; {@code user} is the role's read model, never the entity.
+     */
+    public record LoginResponse(String token, String refreshToken, String role, Object user) {
     }
 
     @Data
@@ -137,4 +184,9 @@ public class AuthHandler {
         private String email;
         private String password;
     }
+
+    @Data
+    static class RefreshRequest {
+        private String refreshToken;
+    }
 }
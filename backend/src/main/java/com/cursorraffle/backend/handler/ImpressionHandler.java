@@ -0,0 +1,101 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.repository.ImpressionCountRepository.ImpressionDelta;
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.cursorraffle.backend.service.ImpressionIngestionService;
+import lombok.Data;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ImpressionHandler {
+
+    private final ImpressionIngestionService ingestionService;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    public ImpressionHandler(ImpressionIngestionService ingestionService, AnalyticsRollupService analyticsRollupService) {
+        this.ingestionService = ingestionService;
+        this.analyticsRollupService = analyticsRollupService;
+    }
+
+    public Mono<ServerResponse> recordImpression(ServerRequest request) {
+        return request.bodyToMono(ImpressionRequest.class)
+                .flatMap(impression -> {
+                    if (!impression.isValid()) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "advertiserId ve sprintId zorunludur."));
+                    }
+                    if (impression.countOrOne() > ingestionService.getMaxPerRequest()) {
+                        return tooMany();
+                    }
+                    boolean recorded = ingestionService.record(impression.getAdvertiserId(), impression.getSprintId(), impression.countOrOne());
+                    if (recorded) {
+                        analyticsRollupService.impressionsRecorded(impression.getSprintId(), impression.countOrOne());
+                    }
+                    return accept(recorded, 1);
+                });
+    }
+
+    public Mono<ServerResponse> recordImpressions(ServerRequest request) {
+        return request.bodyToFlux(ImpressionRequest.class)
+                .collectList()
+                .flatMap(impressions -> {
+                    if (impressions.stream().anyMatch(impression -> !impression.isValid())) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "advertiserId ve sprintId zorunludur."));
+                    }
+                    // Checked one by one first so the sum cannot overflow
+                    long max = ingestionService.getMaxPerRequest();
+                    if (impressions.stream().anyMatch(impression -> impression.countOrOne() > max)
+                            || impressions.stream().mapToLong(ImpressionRequest::countOrOne).sum() > max) {
+                        return tooMany();
+                    }
+                    List<ImpressionDelta> deltas = impressions.stream()
+                            .map(impression -> new ImpressionDelta(impression.getAdvertiserId(), impression.getSprintId(), impression.countOrOne()))
+                            .toList();
+                    boolean recorded = ingestionService.recordAll(deltas);
+                    if (recorded) {
+                        deltas.forEach(delta -> analyticsRollupService.impressionsRecorded(delta.sprintId(), delta.count()));
+                    }
+                    return accept(recorded, impressions.size());
+                });
+    }
+
+    private Mono<ServerResponse> tooMany() {
+        return ServerResponse.badRequest().bodyValue(Map.of("message",
+                "Bir istekte en fazla " + ingestionService.getMaxPerRequest() + " gösterim gönderilebilir."));
+    }
+
+    private Mono<ServerResponse> accept(boolean recorded, int count) {
+        if (!recorded) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("message", "Gösterim kuyruğu dolu, lütfen tekrar deneyin."));
+        }
+        return ServerResponse.accepted()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("accepted", count));
+    }
+
+    @Data
+    static class ImpressionRequest {
+        private Long advertiserId;
+        private String sprintId;
+        private Long count;
+
+        boolean isValid() {
+            return advertiserId != null && sprintId != null && !sprintId.isBlank() && (count == null || count > 0);
+        }
+
+        long countOrOne() {
+            return count == null ? 1L : count;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.cursorraffle.backend.handler;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Shared request handling for keyset-paginated list endpoints.
+ * <p>
+ * {@code ?after=<id>&limit=<n>} returns one page as a JSON array and sets
+ * {@code X-Next-Cursor} when more rows may follow. Clients that accept
+ * {@code application/x-ndjson} instead get every row after the cursor
+ * streamed one line at a time, without the page ever being buffered.
+ */
+final class KeysetPagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private KeysetPagination() {
+    }
+
+    static long after(ServerRequest request) {
+        return request.queryParam("after").map(Long::parseLong).orElse(0L);
+    }
+
+    static int limit(ServerRequest request) {
+        int limit = request.queryParam("limit").map(Integer::parseInt).orElse(DEFAULT_LIMIT);
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    static boolean wantsStream(ServerRequest request) {
+        return request.headers().accept().stream()
+                .anyMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON) && !mediaType.isWildcardType());
+    }
+
+    /**
+     * Responds with either an NDJSON stream of all rows after the cursor or a
+     * single JSON page, depending on what the client accepts.
+     *
+     * @param query keyset query taking (afterId, limit)
+     * @param idOf  extracts the cursor column from a row
+     */
+    static <T> Mono<ServerResponse> respond(ServerRequest request, Class<T> type,
+                                            BiFunction<Long, Integer, Flux<T>> query,
+                                            Function<T, Long> idOf) {
+        long after;
+        int limit;
+        try {
+            after = after(request);
+            limit = limit(request);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz sayfalama parametresi."));
+        }
+        if (wantsStream(request)) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(stream(after, query, idOf), type);
+        }
+        return query.apply(after, limit)
+                .collectList()
+                .flatMap(page -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+                    if (page.size() == limit) {
+                        response.header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(page.get(page.size() - 1))));
+                    }
+                    return response.bodyValue(page);
+                });
+    }
+
+    /**
+     * Walks the keyset page by page so the database never holds one huge
+     * result open and the heap never holds more than one page.
+     */
+    private static <T> Flux<T> stream(long after, BiFunction<Long, Integer, Flux<T>> query, Function<T, Long> idOf) {
+        return query.apply(after, MAX_LIMIT)
+                .collectList()
+                .expand(page -> page.size() < MAX_LIMIT
+                        ? Mono.empty()
+                        : query.apply(idOf.apply(page.get(page.size() - 1)), MAX_LIMIT).collectList())
+                .flatMapIterable(Function.<List<T>>identity());
+    }
+}
@@ -0,0 +1,242 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.repository.MediaAssetRepository.MediaAsset;
+import com.cursorraffle.backend.repository.MediaUploadRepository.Upload;
+import com.cursorraffle.backend.service.MediaCatalogService;
+import com.cursorraffle.backend.service.MediaDeliveryService;
+import com.cursorraffle.backend.service.MediaUploadService;
+import com.cursorraffle.backend.service.MediaUploadService.ChunkResult;
+import com.cursorraffle.backend.service.MediaUploadService.UploadRejectedException;
+import lombok.Data;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Resumable uploads in the style of tus: create, then PATCH chunks at the
+ * {@code Upload-Offset} the server reports, HEAD to resume after a drop.
+ * <p>
+ * Stored media is served with {@code Range}, {@code ETag} and
+ * {@code Last-Modified} support. Assets never change once stored, so the
+ * ETag is their SHA-256 and they are cacheable for good.
+ */
+@Component
+public class MediaHandler {
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+    static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final MediaUploadService mediaUploadService;
+    private final MediaCatalogService mediaCatalogService;
+    private final MediaDeliveryService mediaDeliveryService;
+
+    public MediaHandler(MediaUploadService mediaUploadService,
+                        MediaCatalogService mediaCatalogService,
+                        MediaDeliveryService mediaDeliveryService) {
+        this.mediaUploadService = mediaUploadService;
+        this.mediaCatalogService = mediaCatalogService;
+        this.mediaDeliveryService = mediaDeliveryService;
+    }
+
+    /**
+     * Serves a stored asset. A whole file or a single range that lies within
+     * the cached opening segment is answered from memory; anything else is
+     * written from the file, which Netty sends with zero-copy transfer and
+     * which handles {@code Range}/206 itself.
+     */
+    public Mono<ServerResponse> getMedia(ServerRequest request) {
+        return mediaCatalogService.find(request.pathVariable("id"))
+                .flatMap(asset -> {
+                    String etag = "\"" + asset.sha256() + "\"";
+                    return request.checkNotModified(asset.createdAt(), etag)
+                            .switchIfEmpty(Mono.defer(() -> {
+                                ByteBuffer segment = mediaDeliveryService.cachedSegment(asset);
+                                if (segment != null) {
+                                    Mono<ServerResponse> fromMemory = fromSegment(request, asset, etag, segment);
+                                    if (fromMemory != null) {
+                                        return fromMemory;
+                                    }
+                                }
+                                return ServerResponse.ok()
+                                        .contentType(MediaType.parseMediaType(asset.contentType()))
+                                        .eTag(etag)
+                                        .lastModified(asset.createdAt())
+                                        .cacheControl(IMMUTABLE)
+                                        .body(BodyInserters.fromResource(new FileSystemResource(mediaCatalogService.pathOf(asset))));
+                            }));
+                })
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // Null when the request reaches past the cached segment
+    private Mono<ServerResponse> fromSegment(ServerRequest request, MediaAsset asset, String etag, ByteBuffer segment) {
+        long size = asset.size();
+        List<HttpRange> ranges;
+        try {
+            ranges = rangesFor(request, etag);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        long start = 0;
+        long end = size - 1;
+        if (ranges.size() > 1) {
+            return null;
+        }
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+            if (start >= size) {
+                return null;
+            }
+        }
+        if (end >= segment.limit()) {
+            return null;
+        }
+        ByteBuffer slice = segment.position((int) start).limit((int) end + 1).slice();
+        ServerResponse.BodyBuilder response = ranges.isEmpty()
+                ? ServerResponse.ok()
+                : ServerResponse.status(HttpStatus.PARTIAL_CONTENT)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        return response
+                .contentType(MediaType.parseMediaType(asset.contentType()))
+                .contentLength(slice.remaining())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(etag)
+                .lastModified(asset.createdAt())
+                .cacheControl(IMMUTABLE)
+                .body(BodyInserters.fromDataBuffers(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(slice))));
+    }
+
+    // A Range with a stale If-Range means the whole file
+    private static List<HttpRange> rangesFor(ServerRequest request, String etag) {
+        List<HttpRange> ranges = request.headers().range();
+        String ifRange = request.headers().firstHeader(HttpHeaders.IF_RANGE);
+        return ranges.isEmpty() || ifRange == null || ifRange.equals(etag) ? ranges : List.of();
+    }
+
+    public Mono<ServerResponse> createUpload(ServerRequest request) {
+        return Mono.zip(request.principal(), request.bodyToMono(CreateUploadRequest.class))
+                .flatMap(tuple -> {
+                    CreateUploadRequest body = tuple.getT2();
+                    if (body.getSize() == null) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "size zorunludur."));
+                    }
+                    return mediaUploadService.create(Long.parseLong(tuple.getT1().getName()),
+                                    body.getContentType(), body.getSize(), body.getSha256(), body.getDurationSeconds())
+                            .flatMap(upload -> ServerResponse.created(URI.create("/api/media/uploads/" + upload.id()))
+                                    .header(UPLOAD_OFFSET, "0")
+                                    .header(UPLOAD_LENGTH, String.valueOf(upload.length()))
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(Map.of("uploadId", upload.id(), "offset", 0, "length", upload.length())));
+                })
+                .onErrorResume(UploadRejectedException.class, MediaHandler::rejected);
+    }
+
+    public Mono<ServerResponse> getUploadOffset(ServerRequest request) {
+        return ownedUpload(request)
+                .flatMap(upload -> ServerResponse.ok()
+                        .header(UPLOAD_OFFSET, String.valueOf(upload.offset()))
+                        .header(UPLOAD_LENGTH, String.valueOf(upload.length()))
+                        .cacheControl(CacheControl.noStore())
+                        .build())
+                .onErrorResume(UploadRejectedException.class, MediaHandler::rejected)
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * Appends the request body at {@code Upload-Offset}. Chunks longer than
+     * what is left are refused from the headers alone, before any byte is read.
+     */
+    public Mono<ServerResponse> appendChunk(ServerRequest request) {
+        Optional<Long> offset;
+        try {
+            offset = Optional.ofNullable(request.headers().firstHeader(UPLOAD_OFFSET)).map(Long::parseLong);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz " + UPLOAD_OFFSET + " başlığı."));
+        }
+        if (offset.isEmpty()) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", UPLOAD_OFFSET + " başlığı zorunludur."));
+        }
+        if (offset.get() < 0) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz " + UPLOAD_OFFSET + " başlığı."));
+        }
+        OptionalLong contentLength = request.headers().contentLength();
+        return ownedUpload(request)
+                .flatMap(upload -> {
+                    if (contentLength.isPresent() && offset.get() + contentLength.getAsLong() > upload.length()) {
+                        return rejected(new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Parça beyan edilen boyutu aşıyor."));
+                    }
+                    return mediaUploadService.append(upload, offset.get(), request.body(BodyExtractors.toDataBuffers()))
+                            .flatMap(this::chunkResponse);
+                })
+                .onErrorResume(UploadRejectedException.class, MediaHandler::rejected)
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> cancelUpload(ServerRequest request) {
+        return ownedUpload(request)
+                .flatMap(upload -> mediaUploadService.cancel(upload).then(ServerResponse.noContent().build()))
+                .onErrorResume(UploadRejectedException.class, MediaHandler::rejected)
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private Mono<ServerResponse> chunkResponse(ChunkResult result) {
+        if (result.asset() != null) {
+            return ServerResponse.created(URI.create("/api/media/" + result.asset().id()))
+                    .header(UPLOAD_OFFSET, String.valueOf(result.offset()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(result.asset());
+        }
+        return ServerResponse.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(result.offset()))
+                .build();
+    }
+
+    private Mono<Upload> ownedUpload(ServerRequest request) {
+        return request.principal().flatMap(principal -> mediaUploadService.find(request.pathVariable("id"))
+                .flatMap(upload -> isAdmin(principal) || String.valueOf(upload.advertiserId()).equals(principal.getName())
+                        ? Mono.just(upload)
+                        : Mono.error(new UploadRejectedException(HttpStatus.FORBIDDEN, "Bu yükleme size ait değil."))));
+    }
+
+    private static boolean isAdmin(Principal principal) {
+        return principal instanceof JwtAuthenticationToken jwt
+                && jwt.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    private static Mono<ServerResponse> rejected(UploadRejectedException e) {
+        return ServerResponse.status(e.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("message", e.getMessage()));
+    }
+
+    @Data
+    static class CreateUploadRequest {
+        private String contentType;
+        private Long size;
+        private String sha256;
+        private Integer durationSeconds;
+    }
+}
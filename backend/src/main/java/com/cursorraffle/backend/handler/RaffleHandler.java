@@ -0,0 +1,180 @@
+package com.cursorraffle.backend.handler;
+
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.cursorraffle.backend.service.ImpressionIngestionService;
+import com.cursorraffle.backend.service.RaffleDrawService;
+import com.cursorraffle.backend.service.RaffleDrawService.NoTicketsException;
+import com.cursorraffle.backend.service.SprintScheduleService;
+import com.cursorraffle.backend.service.SprintScheduleService.Sprint;
+import com.cursorraffle.backend.service.TicketTallyService;
+import com.cursorraffle.backend.service.ViewSessionService;
+import lombok.Data;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RaffleHandler {
+
+    private static final int MAX_WINNERS = 1000;
+    private static final int DEFAULT_LEADERBOARD_LIMIT = 10;
+
+    private final RaffleDrawService raffleDrawService;
+    private final SprintScheduleService sprintScheduleService;
+    private final TicketTallyService ticketTallyService;
+    private final ViewSessionService viewSessionService;
+    private final ImpressionIngestionService impressionIngestionService;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    public RaffleHandler(RaffleDrawService raffleDrawService, SprintScheduleService sprintScheduleService,
+                         TicketTallyService ticketTallyService, ViewSessionService viewSessionService,
+                         ImpressionIngestionService impressionIngestionService,
+                         AnalyticsRollupService analyticsRollupService) {
+        this.raffleDrawService = raffleDrawService;
+        this.sprintScheduleService = sprintScheduleService;
+        this.ticketTallyService = ticketTallyService;
+        this.viewSessionService = viewSessionService;
+        this.impressionIngestionService = impressionIngestionService;
+        this.analyticsRollupService = analyticsRollupService;
+    }
+
+    /**
+     * Opens a server-side view session for the authenticated user. The id is
+     * returned as a string so JavaScript clients keep every digit.
+     */
+    public Mono<ServerResponse> startView(ServerRequest request) {
+        return Mono.zip(request.principal(), request.bodyToMono(ViewRequest.class).defaultIfEmpty(new ViewRequest()))
+                .flatMap(tuple -> viewSessionService.start(Long.parseLong(tuple.getT1().getName()), tuple.getT2().getAdvertiserId())
+                        .flatMap(session -> ServerResponse.status(HttpStatus.CREATED)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of(
+                                        "sessionId", String.valueOf(session.id()),
+                                        "minViewSeconds", viewSessionService.getMinViewDuration().toSeconds(),
+                                        "expiresInSeconds", viewSessionService.getSessionTtl().toSeconds())))
+                        .switchIfEmpty(ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .bodyValue(Map.of("message", "Çok fazla açık izleme oturumu var, lütfen tekrar deneyin."))));
+    }
+
+    /**
+     * Completes a view session, credits the user's tickets and counts one
+     * impression for the session's advertiser. Too early
+     * answers 425 with Retry-After; an unknown, expired or already completed
+     * session answers 404.
+     */
+    public Mono<ServerResponse> completeView(ServerRequest request) {
+        long sessionId;
+        try {
+            sessionId = Long.parseLong(request.pathVariable("sessionId"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.notFound().build();
+        }
+        return request.principal().flatMap(principal -> {
+            long userId = Long.parseLong(principal.getName());
+            return viewSessionService.complete(userId, sessionId).flatMap(completion -> switch (completion.outcome()) {
+                case TOO_EARLY -> ServerResponse.status(HttpStatus.TOO_EARLY)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(
+                                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(completion.remainingNanos() + 999_999_999L))))
+                        .bodyValue(Map.of("success", false, "raffleTicketEarned", false,
+                                "message", "Reklam minimum süre boyunca izlenmedi."));
+                case UNKNOWN -> ServerResponse.notFound().build();
+                case ACCEPTED -> ticketTallyService.recordViews(userId, 1)
+                        .doOnNext(award -> recordImpression(completion.session().advertiserId(), award.sprintId()))
+                        .flatMap(award -> ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of(
+                                        "success", true,
+                                        "raffleTicketEarned", award.tickets() > 0,
+                                        "multiplier", award.multiplier(),
+                                        "tickets", award.tickets(),
+                                        "total", award.total(),
+                                        "sprintId", award.sprintId())))
+                        .switchIfEmpty(ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of("success", true, "raffleTicketEarned", false,
+                                        "message", "Şu anda aktif bir sprint yok.")));
+            });
+        });
+    }
+
+    // A full impression buffer must not fail a view the user has already watched; the impression is dropped
+    private void recordImpression(Long advertiserId, String sprintId) {
+        if (advertiserId != null && impressionIngestionService.record(advertiserId, sprintId, 1)) {
+            analyticsRollupService.impressionsRecorded(sprintId, 1);
+        }
+    }
+
+    /**
+     * Top of the leaderboard for {@code ?sprintId=} (default: the running
+     * sprint), served from memory.
+     */
+    public Mono<ServerResponse> getLeaderboard(ServerRequest request) {
+        Optional<String> sprintId = sprintIdOf(request.queryParam("sprintId").orElse(null));
+        if (sprintId.isEmpty()) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(List.of());
+        }
+        int limit;
+        try {
+            limit = request.queryParam("limit").map(Integer::parseInt).orElse(DEFAULT_LEADERBOARD_LIMIT);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz limit parametresi."));
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ticketTallyService.leaderboard(sprintId.get(), Math.max(0, limit)));
+    }
+
+    /**
+     * Draws winners for {@code sprintId} (default: the running sprint). Passing
+     * the {@code seed} of an earlier result repeats that draw for audit.
+     */
+    public Mono<ServerResponse> draw(ServerRequest request) {
+        return request.bodyToMono(DrawRequest.class)
+                .defaultIfEmpty(new DrawRequest())
+                .flatMap(draw -> {
+                    Optional<String> sprintId = sprintIdOf(draw.getSprintId());
+                    if (sprintId.isEmpty()) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "Aktif sprint yok, sprintId zorunludur."));
+                    }
+                    int winners = draw.getWinners() == null ? 1 : draw.getWinners();
+                    if (winners < 1 || winners > MAX_WINNERS) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "winners 1 ile " + MAX_WINNERS + " arasında olmalıdır."));
+                    }
+                    // Flush first so tickets this pod credited up to now are stored
+                    return ticketTallyService.flush()
+                            .then(raffleDrawService.draw(sprintId.get(), winners, draw.getSeed()))
+                            .flatMap(result -> ServerResponse.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(result))
+                            .onErrorResume(NoTicketsException.class, e -> ServerResponse.status(HttpStatus.CONFLICT)
+                                    .bodyValue(Map.of("message", "Bu sprint için kayıtlı bilet yok.")));
+                });
+    }
+
+    private Optional<String> sprintIdOf(String requested) {
+        return Optional.ofNullable(requested)
+                .filter(id -> !id.isBlank())
+                .or(() -> sprintScheduleService.currentSprint().map(Sprint::id));
+    }
+
+    @Data
+    static class ViewRequest {
+        private Long advertiserId;
+    }
+
+    @Data
+    static class DrawRequest {
+        private String sprintId;
+        private Integer winners;
+        private Long seed;
+    }
+}
@@ -1,46 +1,274 @@
 package com.cursorraffle.backend.handler;
 
 import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.repository.AdvertiserRepository;
 import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import com.cursorraffle.backend.service.ActiveSponsorshipSnapshotService;
+import com.cursorraffle.backend.service.ActiveSponsorshipSnapshotService.Snapshot;
+import com.cursorraffle.backend.service.AnalyticsRollupService;
+import com.cursorraffle.backend.service.ServerEventService;
+import com.cursorraffle.backend.service.SponsorCalendarService;
+import com.cursorraffle.backend.service.SponsorshipAuctionService;
+import com.cursorraffle.backend.service.SponsorshipAuctionService.AuctionClosedException;
 import lombok.Data;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class SponsorshipHandler {
 
     private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final AdvertiserRepository advertiserRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final ActiveSponsorshipSnapshotService activeSponsorshipSnapshotService;
+    private final ServerEventService serverEventService;
+    private final SponsorCalendarService sponsorCalendarService;
+    private final SponsorshipAuctionService sponsorshipAuctionService;
 
-    public SponsorshipHandler(SponsorshipApplicationRepository sponsorshipRepository) {
+    public SponsorshipHandler(SponsorshipApplicationRepository sponsorshipRepository, AdvertiserRepository advertiserRepository,
+                              AnalyticsRollupService analyticsRollupService,
+                              ActiveSponsorshipSnapshotService activeSponsorshipSnapshotService, ServerEventService serverEventService,
+                              SponsorCalendarService sponsorCalendarService, SponsorshipAuctionService sponsorshipAuctionService) {
         this.sponsorshipRepository = sponsorshipRepository;
+        this.advertiserRepository = advertiserRepository;
+        this.analyticsRollupService = analyticsRollupService;
+        this.activeSponsorshipSnapshotService = activeSponsorshipSnapshotService;
+        this.serverEventService = serverEventService;
+        this.sponsorCalendarService = sponsorCalendarService;
+        this.sponsorshipAuctionService = sponsorshipAuctionService;
     }
 
+    /**
+     * Opens an application for the calling advertiser. The advertiser id and
+     * name come from the token and the advertiser row, never from the body;
+     * only an admin may apply on behalf of the advertiser the body names.
+     */
     public Mono<ServerResponse> createApplication(ServerRequest request) {
-        return request.bodyToMono(SponsorshipApplication.class)
-                .flatMap(app -> {
-                    app.setStatus("PENDING");
-                    app.setCreatedAt(LocalDateTime.now());
-                    app.setUpdatedAt(LocalDateTime.now());
-                    return sponsorshipRepository.save(app)
-                            .flatMap(saved -> ServerResponse.ok()
-                                    .contentType(MediaType.APPLICATION_JSON)
-                                    .bodyValue(saved));
+        return Mono.zip(request.bodyToMono(SponsorshipApplication.class), request.principal().map(this::principalOf))
+                .flatMap(tuple -> {
+                    SponsorshipApplication app = tuple.getT1();
+                    Bidder bidder = tuple.getT2();
+                    if (!bidder.admin()) {
+                        app.setAdvertiserId(Long.valueOf(bidder.subject()));
+                    }
+                    if (app.getAdvertiserId() == null) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "advertiserId zorunludur."));
+                    }
+                    return advertiserRepository.findSummaryById(app.getAdvertiserId())
+                            .flatMap(advertiser -> {
+                                app.setAdvertiserName(advertiser.companyName());
+                                return apply(app);
+                            })
+                            .switchIfEmpty(ServerResponse.badRequest().bodyValue(Map.of("message", "Reklamveren bulunamadı.")));
                 });
     }
 
-    public Mono<ServerResponse> getActiveSponsorships(ServerRequest request) {
-        return sponsorshipRepository.findByStatus("APPROVED")
-                .collectList()
-                .flatMap(list -> ServerResponse.ok()
+    private Mono<ServerResponse> apply(SponsorshipApplication app) {
+        if (app.getStartDate() != null && !sponsorshipAuctionService.isOpen(app)) {
+            return auctionClosed();
+        }
+        // With @Version a non-null version marks the entity as existing
+        app.setVersion(null);
+        app.setStatus("PENDING");
+        app.setCreatedAt(LocalDateTime.now());
+        app.setUpdatedAt(LocalDateTime.now());
+        return sponsorshipRepository.save(app)
+                .flatMap(saved -> sponsorshipAuctionService.placeBid(saved)
+                        ? Mono.just(saved)
+                        // The auction closed between the check and the insert; undo it unless it was already settled
+                        : sponsorshipRepository.delete(saved)
+                                .then(Mono.<SponsorshipApplication>error(new AuctionClosedException()))
+                                .onErrorResume(OptimisticLockingFailureException.class,
+                                        e -> sponsorshipRepository.findById(saved.getId())))
+                .doOnNext(saved -> {
+                    analyticsRollupService.applicationCreated(saved.getType(), saved.getStatus());
+                    activeSponsorshipSnapshotService.invalidate();
+                    serverEventService.publish(ServerEventService.ANALYTICS_DELTA, Map.of(
+                            "metric", "totalApplications",
+                            "delta", 1,
+                            "type", String.valueOf(saved.getType())));
+                })
+                .flatMap(saved -> ServerResponse.ok()
                         .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(list));
+                        .bodyValue(saved))
+                .onErrorResume(AuctionClosedException.class, e -> auctionClosed());
+    }
+
+    /**
+     * Raises or lowers the bid of a pending application. The body carries the
+     * {@code version} the client last read; a stale version or a closed
+     * auction is answered with 409.
+     */
+    public Mono<ServerResponse> updateBid(ServerRequest request) {
+        Long applicationId = Long.parseLong(request.pathVariable("id"));
+        return Mono.zip(request.bodyToMono(BidRequest.class), request.principal().map(this::principalOf))
+                .flatMap(tuple -> {
+                    BidRequest bid = tuple.getT1();
+                    if (bid.getBidAmount() == null || bid.getBidAmount() <= 0 || bid.getVersion() == null) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("message", "bidAmount ve version zorunludur."));
+                    }
+                    return sponsorshipRepository.findById(applicationId)
+                            .flatMap(app -> {
+                                if (!tuple.getT2().mayBidFor(app)) {
+                                    return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+                                }
+                                if (!"PENDING".equals(app.getStatus()) || !sponsorshipAuctionService.isOpen(app)) {
+                                    return auctionClosed();
+                                }
+                                // Saving with the client's version makes a stale bid fail instead of overwriting
+                                app.setBidAmount(bid.getBidAmount());
+                                app.setVersion(bid.getVersion());
+                                app.setUpdatedAt(LocalDateTime.now());
+                                // Booked first: a closed auction saves nothing, a failed save unbooks
+                                return sponsorshipAuctionService.rebid(app, Mono.defer(() -> sponsorshipRepository.save(app)))
+                                        .flatMap(saved -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(saved));
+                            })
+                            .switchIfEmpty(ServerResponse.notFound().build());
+                })
+                .onErrorResume(AuctionClosedException.class, e -> auctionClosed())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> ServerResponse.status(HttpStatus.CONFLICT)
+                        .bodyValue(Map.of("message", "Teklif başka bir istekle güncellendi, lütfen yenileyip tekrar deneyin.")));
+    }
+
+    /**
+     * Without paging parameters this serves the cached, pre-encoded snapshot
+     * and honours If-None-Match and gzip; paging or NDJSON requests go to the
+     * database through the keyset path.
+     */
+    public Mono<ServerResponse> getActiveSponsorships(ServerRequest request) {
+        Optional<String> type = request.queryParam("type");
+        if (type.isEmpty() && request.queryParam("after").isEmpty() && request.queryParam("limit").isEmpty()
+                && !KeysetPagination.wantsStream(request)) {
+            return activeSponsorshipSnapshotService.snapshot()
+                    .flatMap(snapshot -> snapshotResponse(request, snapshot));
+        }
+        return KeysetPagination.respond(request, SponsorshipApplication.class,
+                (afterId, limit) -> type
+                        .map(t -> sponsorshipRepository.findByStatusAndTypeAfter("APPROVED", t, afterId, limit))
+                        .orElseGet(() -> sponsorshipRepository.findByStatusAfter("APPROVED", afterId, limit)),
+                SponsorshipApplication::getId);
+    }
+
+    /**
+     * Sponsorships live at {@code ?at=} (default now) for slot {@code ?type=},
+     * highest bid first, resolved from the in-memory calendar.
+     */
+    public Mono<ServerResponse> getLiveSponsors(ServerRequest request) {
+        Optional<String> type = request.queryParam("type");
+        if (type.isEmpty()) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "type zorunludur (DAILY, WEEKLY, MONTHLY)."));
+        }
+        LocalDateTime at;
+        try {
+            at = request.queryParam("at").map(LocalDateTime::parse).orElseGet(sponsorCalendarService::now);
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().bodyValue(Map.of("message", "Geçersiz tarih: " + e.getParsedString()));
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(sponsorCalendarService.liveAt(type.get(), at));
+    }
+
+    private static Mono<ServerResponse> auctionClosed() {
+        return ServerResponse.status(HttpStatus.CONFLICT)
+                .bodyValue(Map.of("message", "Bu slot için açık artırma kapandı."));
+    }
+
+    private Bidder principalOf(Principal principal) {
+        if (principal instanceof JwtAuthenticationToken jwt) {
+            boolean admin = jwt.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+            return new Bidder(jwt.getName(), admin);
+        }
+        return new Bidder(principal.getName(), false);
+    }
+
+    private record Bidder(String subject, boolean admin) {
+
+        boolean mayBidFor(SponsorshipApplication app) {
+            return admin || String.valueOf(app.getAdvertiserId()).equals(subject);
+        }
+    }
+
+    @Data
+    public static class BidRequest {
+        private Double bidAmount;
+        private Long version;
     }
-}
 
+    private Mono<ServerResponse> snapshotResponse(ServerRequest request, Snapshot snapshot) {
+        boolean gzip = acceptsGzip(request);
+        String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+        if (Snapshot.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .bodyValue(snapshot.gzip());
+        }
+        return response.bodyValue(snapshot.json());
+    }
+
+    /**
+     * True when Accept-Encoding allows gzip, by name or through {@code *},
+     * with a non-zero q value; {@code gzip;q=0} refuses it.
+     */
+    private static boolean acceptsGzip(ServerRequest request) {
+        Double gzip = null;
+        Double any = null;
+        for (String header : request.headers().header(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String element : header.split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                double q = qualityOf(parts);
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = gzip == null ? q : Math.max(gzip, q);
+                } else if (coding.equals("*")) {
+                    any = any == null ? q : Math.max(any, q);
+                }
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
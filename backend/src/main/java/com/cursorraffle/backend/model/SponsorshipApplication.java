@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 import java.time.LocalDateTime;
 
@@ -23,5 +24,7 @@ public class SponsorshipApplication {
     private String status; // PENDING, APPROVED, REJECTED
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @Version
+    private Long version; // Optimistic lock; concurrent bid/status updates fail instead of overwriting
 }
 
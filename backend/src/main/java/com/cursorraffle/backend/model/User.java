@@ -19,5 +19,6 @@ public class User {
     private String name;
     private String surname;
     private String phone;
+    private Double raffleMultiplier; // Tickets per watched ad are multiplied by this; null means x1
 }
 
@@ -1,12 +1,25 @@
 package com.cursorraffle.backend.repository;
 
 import com.cursorraffle.backend.model.Admin;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
 @Repository
 public interface AdminRepository extends R2dbcRepository<Admin, Long> {
-    Mono<Admin> findByEmail(String email);
-}
+    Mono<Boolean> existsByEmail(String email);
+
+    @Query("SELECT id, email, name, surname, phone FROM admins WHERE id = :id")
+    Mono<AdminProfile> findProfileById(Long id);
 
+    /**
+     * Admin columns returned to clients.
+     */
+    record AdminProfile(Long id, String email, String name, String surname, String phone) {
+
+        public static AdminProfile of(Admin admin) {
+            return new AdminProfile(admin.getId(), admin.getEmail(), admin.getName(), admin.getSurname(), admin.getPhone());
+        }
+    }
+}
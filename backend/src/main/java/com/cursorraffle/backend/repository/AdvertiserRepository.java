@@ -1,12 +1,36 @@
 package com.cursorraffle.backend.repository;
 
 import com.cursorraffle.backend.model.Advertiser;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface AdvertiserRepository extends R2dbcRepository<Advertiser, Long> {
-    Mono<Advertiser> findByContactEmail(String contactEmail);
-}
+    Mono<Boolean> existsByContactEmail(String contactEmail);
+    Mono<Long> countByIsVerified(Boolean isVerified);
+
+    @Query("SELECT id, company_name, industry, contact_email, logo_url, is_verified, created_at FROM advertisers WHERE id = :id")
+    Mono<AdvertiserSummary> findSummaryById(Long id);
 
+    @Query("SELECT id, company_name, industry, contact_email, logo_url, is_verified, created_at FROM advertisers "
+            + "WHERE is_verified IS NOT TRUE AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<AdvertiserSummary> findUnverifiedAfter(Long afterId, int limit);
+
+    /**
+     * Advertiser read model for login and review lists. Selects neither the
+     * password hash nor the long free-text columns.
+     */
+    record AdvertiserSummary(Long id, String companyName, String industry, String contactEmail, String logoUrl,
+                             Boolean isVerified, LocalDateTime createdAt) {
+
+        public static AdvertiserSummary of(Advertiser advertiser) {
+            return new AdvertiserSummary(advertiser.getId(), advertiser.getCompanyName(), advertiser.getIndustry(),
+                    advertiser.getContactEmail(), advertiser.getLogoUrl(), advertiser.getIsVerified(), advertiser.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cursorraffle.backend.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Builds the multi-row {@code INSERT ... ON CONFLICT DO UPDATE} that adds
+ * counter deltas to their stored rows, so a flush costs one statement per
+ * batch instead of a read-modify-write per row.
+ */
+final class CounterUpsert {
+
+    private CounterUpsert() {
+    }
+
+    static <T> DatabaseClient.GenericExecuteSpec addAll(DatabaseClient databaseClient, String table,
+                                                        List<String> keyColumns, String counterColumn,
+                                                        List<T> rows, Function<T, List<Object>> values) {
+        return addAll(databaseClient, table, keyColumns, counterColumn, rows, values, null);
+    }
+
+    /**
+     * One statement adding each row's delta to {@code counterColumn} of the
+     * row with the same key, inserting the rows that do not exist yet.
+     *
+     * @param values    a row's key values in {@code keyColumns} order, then its delta
+     * @param rows      must not be empty
+     * @param returning columns of the stored rows to return, or null for none
+     */
+    static <T> DatabaseClient.GenericExecuteSpec addAll(DatabaseClient databaseClient, String table,
+                                                        List<String> keyColumns, String counterColumn,
+                                                        List<T> rows, Function<T, List<Object>> values,
+                                                        String returning) {
+        String keys = String.join(", ", keyColumns);
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(keys).append(", ").append(counterColumn).append(", updated_at) VALUES ");
+        int columns = keyColumns.size() + 1;
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i > 0 ? ", (" : "(");
+            for (int j = 0; j < columns; j++) {
+                sql.append(":p").append(i).append('_').append(j).append(", ");
+            }
+            sql.append("now())");
+        }
+        sql.append(" ON CONFLICT (").append(keys).append(") DO UPDATE")
+                .append(" SET ").append(counterColumn).append(" = ").append(table).append('.').append(counterColumn)
+                .append(" + EXCLUDED.").append(counterColumn).append(",")
+                .append(" updated_at = EXCLUDED.updated_at");
+        if (returning != null) {
+            sql.append(" RETURNING ").append(returning);
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> row = values.apply(rows.get(i));
+            for (int j = 0; j < columns; j++) {
+                spec = spec.bind("p" + i + "_" + j, row.get(j));
+            }
+        }
+        return spec;
+    }
+}
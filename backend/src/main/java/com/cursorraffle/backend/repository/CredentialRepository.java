@@ -0,0 +1,46 @@
+package com.cursorraffle.backend.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves a login email to the owning principal across the admin,
+ * advertiser and user tables in a single round trip.
+ */
+@Repository
+public class CredentialRepository {
+
+    // Priority column keeps the old admin > advertiser > user precedence
+    private static final String FIND_BY_EMAIL = """
+            SELECT role, id, password, is_verified FROM (
+                SELECT 0 AS priority, 'admin' AS role, id, password, TRUE AS is_verified FROM admins WHERE email = :email
+                UNION ALL
+                SELECT 1, 'advertiser', id, password, is_verified FROM advertisers WHERE contact_email = :email
+                UNION ALL
+                SELECT 2, 'user', id, password, TRUE FROM users WHERE email = :email
+            ) principals
+            ORDER BY priority
+            LIMIT 1
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public CredentialRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Credential> findByEmail(String email) {
+        return databaseClient.sql(FIND_BY_EMAIL)
+                .bind("email", email)
+                .map((row, meta) -> new Credential(
+                        row.get("role", String.class),
+                        row.get("id", Long.class),
+                        row.get("password", String.class),
+                        Boolean.TRUE.equals(row.get("is_verified", Boolean.class))))
+                .one();
+    }
+
+    public record Credential(String role, Long id, String passwordHash, boolean verified) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.cursorraffle.backend.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Aggregated ad impression counters, one row per (advertiser, sprint).
+ * Written in multi-row upserts so a flush costs one statement per batch
+ * instead of one INSERT per view.
+ */
+@Repository
+public class ImpressionCountRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ImpressionCountRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Adds the given deltas to the stored counters in a single statement.
+     */
+    public Mono<Long> upsertAll(List<ImpressionDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return CounterUpsert.addAll(databaseClient, "ad_impression_counts", List.of("advertiser_id", "sprint_id"), "impressions",
+                        deltas, delta -> List.of(delta.advertiserId(), delta.sprintId(), delta.count()))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Flux<ImpressionDelta> sumBySprint() {
+        return databaseClient.sql("SELECT sprint_id, SUM(impressions)::bigint AS impressions FROM ad_impression_counts GROUP BY sprint_id")
+                .map((row, meta) -> new ImpressionDelta(
+                        null,
+                        row.get("sprint_id", String.class),
+                        row.get("impressions", Long.class)))
+                .all();
+    }
+
+    public record ImpressionDelta(Long advertiserId, String sprintId, long count) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.cursorraffle.backend.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * Stored ad media, one row per asset; the bytes live on the shared media
+ * volume. Assets never change once stored.
+ */
+@Repository
+public class MediaAssetRepository {
+
+    private static final String COLUMNS = "id, advertiser_id, content_type, size, sha256, duration_seconds, created_at";
+
+    // Ends the upload and records its asset in one statement; empty if the upload is already gone
+    private static final String INSERT_FROM_UPLOAD = """
+            WITH done AS (
+                DELETE FROM media_uploads WHERE id = :id RETURNING id
+            )
+            INSERT INTO media_assets (id, advertiser_id, content_type, size, sha256, duration_seconds, created_at)
+            SELECT id, :advertiserId, :contentType, :size, :sha256, :durationSeconds, :createdAt FROM done
+            RETURNING\s""" + COLUMNS;
+
+    private final DatabaseClient databaseClient;
+
+    public MediaAssetRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Records {@code asset} and deletes the upload of the same id.
+     */
+    public Mono<MediaAsset> insertFromUpload(MediaAsset asset) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_FROM_UPLOAD)
+                .bind("id", asset.id())
+                .bind("advertiserId", asset.advertiserId())
+                .bind("contentType", asset.contentType())
+                .bind("size", asset.size())
+                .bind("sha256", asset.sha256())
+                .bind("createdAt", asset.createdAt());
+        spec = asset.durationSeconds() == null
+                ? spec.bindNull("durationSeconds", Double.class)
+                : spec.bind("durationSeconds", asset.durationSeconds());
+        return spec.map((row, meta) -> read(row)).one();
+    }
+
+    public Mono<MediaAsset> findById(String id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM media_assets WHERE id = :id")
+                .bind("id", id)
+                .map((row, meta) -> read(row))
+                .one();
+    }
+
+    public Flux<MediaAsset> findByAdvertiserIds(Collection<Long> advertiserIds) {
+        if (advertiserIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM media_assets WHERE advertiser_id = ANY(:advertiserIds)")
+                .bind("advertiserIds", advertiserIds.toArray(Long[]::new))
+                .map((row, meta) -> read(row))
+                .all();
+    }
+
+    private static MediaAsset read(Row row) {
+        return new MediaAsset(
+                row.get("id", String.class),
+                row.get("advertiser_id", Long.class),
+                row.get("content_type", String.class),
+                row.get("size", Long.class),
+                row.get("sha256", String.class),
+                row.get("duration_seconds", Double.class),
+                row.get("created_at", OffsetDateTime.class).toInstant());
+    }
+
+    public record MediaAsset(String id, long advertiserId, String contentType, long size, String sha256,
+                             Double durationSeconds, Instant createdAt) {
+    }
+}
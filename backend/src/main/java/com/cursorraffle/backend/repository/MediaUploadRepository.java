@@ -0,0 +1,136 @@
+package com.cursorraffle.backend.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Resumable upload sessions, shared by every replica. A chunk is written
+ * under a lease taken with a conditional update, so two replicas can never
+ * append to the same upload at once, and its offset is committed only once
+ * its bytes are on the shared volume.
+ */
+@Repository
+public class MediaUploadRepository {
+
+    private static final String COLUMNS = "id, advertiser_id, content_type, length, expected_sha256, part_file, "
+            + "upload_offset, type_checked, duration_seconds, updated_at";
+
+    private final DatabaseClient databaseClient;
+
+    public MediaUploadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Upload> insert(Upload upload) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO media_uploads (id, advertiser_id, content_type, length, expected_sha256, part_file) "
+                                + "VALUES (:id, :advertiserId, :contentType, :length, :expectedSha256, :partFile) RETURNING " + COLUMNS)
+                .bind("id", upload.id())
+                .bind("advertiserId", upload.advertiserId())
+                .bind("contentType", upload.contentType())
+                .bind("length", upload.length())
+                .bind("partFile", upload.partFile());
+        spec = upload.expectedSha256() == null
+                ? spec.bindNull("expectedSha256", String.class)
+                : spec.bind("expectedSha256", upload.expectedSha256());
+        return spec.map((row, meta) -> read(row)).one();
+    }
+
+    public Mono<Upload> findById(String id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM media_uploads WHERE id = :id")
+                .bind("id", id)
+                .map((row, meta) -> read(row))
+                .one();
+    }
+
+    /**
+     * Takes the chunk lease if the upload is still at {@code offset} and no
+     * other writer holds an unexpired lease. Empty otherwise.
+     */
+    public Mono<Upload> lock(String id, long offset, Duration lease) {
+        return databaseClient.sql("UPDATE media_uploads SET locked_until = now() + make_interval(secs => :lease) "
+                        + "WHERE id = :id AND upload_offset = :offset AND (locked_until IS NULL OR locked_until < now()) "
+                        + "RETURNING " + COLUMNS)
+                .bind("id", id)
+                .bind("offset", offset)
+                .bind("lease", (double) lease.toSeconds())
+                .map((row, meta) -> read(row))
+                .one();
+    }
+
+    /**
+     * Moves the upload from {@code from} to {@code offset} once a chunk is
+     * written and releases the lease. Empty if another writer got there first.
+     */
+    public Mono<Upload> commit(String id, long from, long offset, boolean typeChecked, Double durationSeconds) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "UPDATE media_uploads SET upload_offset = :offset, type_checked = :typeChecked, "
+                                + "duration_seconds = :durationSeconds, locked_until = NULL, updated_at = now() "
+                                + "WHERE id = :id AND upload_offset = :from RETURNING " + COLUMNS)
+                .bind("id", id)
+                .bind("from", from)
+                .bind("offset", offset)
+                .bind("typeChecked", typeChecked);
+        spec = durationSeconds == null
+                ? spec.bindNull("durationSeconds", Double.class)
+                : spec.bind("durationSeconds", durationSeconds);
+        return spec.map((row, meta) -> read(row)).one();
+    }
+
+    public Mono<Void> unlock(String id) {
+        return databaseClient.sql("UPDATE media_uploads SET locked_until = NULL WHERE id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    /**
+     * Deletes the session and emits its part file name, if it still existed.
+     */
+    public Mono<String> delete(String id) {
+        return databaseClient.sql("DELETE FROM media_uploads WHERE id = :id RETURNING part_file")
+                .bind("id", id)
+                .map((row, meta) -> row.get("part_file", String.class))
+                .one();
+    }
+
+    /**
+     * Deletes sessions idle since before {@code cutoff} that no writer holds.
+     */
+    public Flux<Upload> deleteIdleSince(Instant cutoff) {
+        return databaseClient.sql("DELETE FROM media_uploads WHERE updated_at < :cutoff "
+                        + "AND (locked_until IS NULL OR locked_until < now()) RETURNING " + COLUMNS)
+                .bind("cutoff", cutoff)
+                .map((row, meta) -> read(row))
+                .all();
+    }
+
+    private static Upload read(Row row) {
+        return new Upload(
+                row.get("id", String.class),
+                row.get("advertiser_id", Long.class),
+                row.get("content_type", String.class),
+                row.get("length", Long.class),
+                row.get("expected_sha256", String.class),
+                row.get("part_file", String.class),
+                row.get("upload_offset", Long.class),
+                Boolean.TRUE.equals(row.get("type_checked", Boolean.class)),
+                row.get("duration_seconds", Double.class),
+                row.get("updated_at", OffsetDateTime.class).toInstant());
+    }
+
+    /**
+     * One upload as last committed. {@code partFile} is relative to the
+     * upload directory; {@code durationSeconds} is set once the video header
+     * has been read.
+     */
+    public record Upload(String id, long advertiserId, String contentType, long length, String expectedSha256,
+                         String partFile, long offset, boolean typeChecked, Double durationSeconds, Instant updatedAt) {
+    }
+}
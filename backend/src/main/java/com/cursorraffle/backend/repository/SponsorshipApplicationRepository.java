@@ -1,15 +1,38 @@
 package com.cursorraffle.backend.repository;
 
 import com.cursorraffle.backend.model.SponsorshipApplication;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface SponsorshipApplicationRepository extends R2dbcRepository<SponsorshipApplication, Long> {
     Flux<SponsorshipApplication> findByStatus(String status);
     Flux<SponsorshipApplication> findByAdvertiserId(Long advertiserId);
     Mono<SponsorshipApplication> findByTypeAndStatus(String type, String status);
+
+    @Query("SELECT * FROM sponsorship_applications WHERE status = :status AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<SponsorshipApplication> findByStatusAfter(String status, Long afterId, int limit);
+
+    @Query("SELECT * FROM sponsorship_applications WHERE status = :status AND type = :type AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<SponsorshipApplication> findByStatusAndTypeAfter(String status, String type, Long afterId, int limit);
+
+    // Slots that still have pending bids and start at or before :startsBy
+    @Query("SELECT DISTINCT type, start_date FROM sponsorship_applications "
+            + "WHERE status = 'PENDING' AND type IS NOT NULL AND start_date <= :startsBy")
+    Flux<AuctionSlot> findPendingSlotsStartingBy(LocalDateTime startsBy);
+
+    @Query("SELECT status, type, COUNT(*) AS total FROM sponsorship_applications GROUP BY status, type")
+    Flux<StatusTypeCount> countByStatusAndType();
+
+    record StatusTypeCount(String status, String type, Long total) {
+    }
+
+    record AuctionSlot(String type, LocalDateTime startDate) {
+    }
 }
 
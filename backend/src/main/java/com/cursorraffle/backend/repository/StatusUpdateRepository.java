@@ -0,0 +1,126 @@
+package com.cursorraffle.backend.repository;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Set-based status changes for admin review. Each call is one
+ * {@code UPDATE ... WHERE id = ANY(:ids) RETURNING} that writes only the
+ * status columns; the rows are locked and their previous status captured in
+ * the same statement, so callers can tell what actually changed. Rows are
+ * always locked in id order, so overlapping bulk calls queue behind each
+ * other instead of deadlocking.
+ */
+@Repository
+public class StatusUpdateRepository {
+
+    private static final String SET_ADVERTISERS_VERIFIED = """
+            WITH previous AS (
+                SELECT id, is_verified FROM advertisers WHERE id = ANY(:ids) ORDER BY id FOR UPDATE
+            )
+            UPDATE advertisers a SET is_verified = :verified, updated_at = now()
+            FROM previous p
+            WHERE a.id = p.id
+            RETURNING a.id, a.company_name, a.contact_email, a.is_verified, a.updated_at, p.is_verified AS was_verified
+            """;
+
+    // Bumps version so concurrent single-row saves fail their optimistic check
+    private static final String SET_SPONSORSHIPS_STATUS = """
+            WITH previous AS (
+                SELECT id, status FROM sponsorship_applications WHERE id = ANY(:ids) ORDER BY id FOR UPDATE
+            )
+            UPDATE sponsorship_applications s SET status = :status, updated_at = now(), version = s.version + 1
+            FROM previous p
+            WHERE s.id = p.id
+            RETURNING s.*, p.status AS previous_status
+            """;
+
+    // Locks the whole slot in id order, so a second settler waits and then finds nothing pending
+    private static final String SETTLE_SLOT = """
+            WITH slot AS (
+                SELECT id, status, bid_amount, created_at FROM sponsorship_applications
+                WHERE type = :type AND start_date = :startDate ORDER BY id FOR UPDATE
+            ),
+            winner AS (
+                SELECT id FROM slot
+                WHERE status = 'PENDING' AND NOT EXISTS (SELECT 1 FROM slot WHERE status = 'APPROVED')
+                ORDER BY COALESCE(bid_amount, 0) DESC, created_at NULLS LAST, id
+                LIMIT 1
+            )
+            UPDATE sponsorship_applications s
+            SET status = CASE WHEN s.id IN (SELECT id FROM winner) THEN 'APPROVED' ELSE 'REJECTED' END,
+                updated_at = now(), version = s.version + 1
+            FROM slot p
+            WHERE s.id = p.id AND p.status = 'PENDING'
+            RETURNING s.*, p.status AS previous_status
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    public StatusUpdateRepository(DatabaseClient databaseClient, R2dbcConverter converter) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+    }
+
+    /**
+     * Sets {@code is_verified} on the given advertisers. Ids that do not
+     * exist are skipped.
+     */
+    public Flux<AdvertiserVerification> setAdvertisersVerified(Collection<Long> ids, boolean verified) {
+        return databaseClient.sql(SET_ADVERTISERS_VERIFIED)
+                .bind("ids", ids.toArray(Long[]::new))
+                .bind("verified", verified)
+                .map((row, meta) -> new AdvertiserVerification(
+                        row.get("id", Long.class),
+                        row.get("company_name", String.class),
+                        row.get("contact_email", String.class),
+                        Boolean.TRUE.equals(row.get("is_verified", Boolean.class)),
+                        Boolean.TRUE.equals(row.get("was_verified", Boolean.class)),
+                        row.get("updated_at", LocalDateTime.class)))
+                .all();
+    }
+
+    /**
+     * Moves the given applications to {@code status}. Ids that do not exist
+     * are skipped.
+     */
+    public Flux<StatusChange> setSponsorshipsStatus(Collection<Long> ids, String status) {
+        return databaseClient.sql(SET_SPONSORSHIPS_STATUS)
+                .bind("ids", ids.toArray(Long[]::new))
+                .bind("status", status)
+                .map((row, meta) -> new StatusChange(
+                        converter.read(SponsorshipApplication.class, row, meta),
+                        row.get("previous_status", String.class)))
+                .all();
+    }
+
+    /**
+     * Closes a sponsorship slot in one statement: unless an application is
+     * already approved, the highest pending bid (earliest on a tie) is
+     * approved, and every other pending bid is rejected. Settling a slot
+     * twice, from any replica, changes nothing the second time.
+     */
+    public Flux<StatusChange> settleSlot(String type, LocalDateTime startDate) {
+        return databaseClient.sql(SETTLE_SLOT)
+                .bind("type", type)
+                .bind("startDate", startDate)
+                .map((row, meta) -> new StatusChange(
+                        converter.read(SponsorshipApplication.class, row, meta),
+                        row.get("previous_status", String.class)))
+                .all();
+    }
+
+    public record AdvertiserVerification(Long id, String companyName, String contactEmail, boolean isVerified,
+                                         boolean wasVerified, LocalDateTime updatedAt) {
+    }
+
+    public record StatusChange(SponsorshipApplication application, String previousStatus) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.cursorraffle.backend.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Raffle ticket tallies, one row per (user, sprint). Deltas are added in
+ * multi-row upserts so a flush never does a read-modify-write per view.
+ */
+@Repository
+public class TicketTallyRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public TicketTallyRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Adds the given deltas to the stored tallies in a single statement and
+     * returns the resulting totals, which include what other replicas stored.
+     */
+    public Flux<TicketDelta> upsertAll(List<TicketDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return Flux.empty();
+        }
+        return CounterUpsert.addAll(databaseClient, "user_ticket_tallies", List.of("user_id", "sprint_id"), "tickets",
+                        deltas, delta -> List.of(delta.userId(), delta.sprintId(), delta.tickets()), "user_id, sprint_id, tickets")
+                .map((row, meta) -> read(row))
+                .all();
+    }
+
+    /**
+     * The sprint's {@code limit} best tallies, most tickets first and ties by
+     * {@code user_id}; served by {@code idx_user_ticket_tallies_sprint}.
+     */
+    public Flux<TicketDelta> findTopBySprint(String sprintId, int limit) {
+        return databaseClient.sql("SELECT user_id, sprint_id, tickets FROM user_ticket_tallies WHERE sprint_id = :sprintId "
+                        + "ORDER BY tickets DESC, user_id LIMIT :limit")
+                .bind("sprintId", sprintId)
+                .bind("limit", limit)
+                .map((row, meta) -> read(row))
+                .all();
+    }
+
+    /**
+     * The sprint's tallies in {@code user_id} order, so callers that build
+     * a draw pool from them always lay it out the same way.
+     */
+    public Flux<TicketDelta> findBySprint(String sprintId) {
+        return databaseClient.sql("SELECT user_id, sprint_id, tickets FROM user_ticket_tallies WHERE sprint_id = :sprintId ORDER BY user_id")
+                .bind("sprintId", sprintId)
+                .map((row, meta) -> read(row))
+                .all();
+    }
+
+    private static TicketDelta read(Row row) {
+        return new TicketDelta(
+                row.get("user_id", Long.class),
+                row.get("sprint_id", String.class),
+                row.get("tickets", Long.class));
+    }
+
+    public record TicketDelta(long userId, String sprintId, long tickets) {
+    }
+}
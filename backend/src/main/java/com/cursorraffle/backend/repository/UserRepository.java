@@ -1,12 +1,25 @@
 package com.cursorraffle.backend.repository;
 
 import com.cursorraffle.backend.model.User;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
 @Repository
 public interface UserRepository extends R2dbcRepository<User, Long> {
-    Mono<User> findByEmail(String email);
-}
+    Mono<Boolean> existsByEmail(String email);
+
+    @Query("SELECT id, email, role, name, surname, phone FROM users WHERE id = :id")
+    Mono<UserProfile> findProfileById(Long id);
 
+    /**
+     * The user as shown in login responses and the profile screen.
+     */
+    record UserProfile(Long id, String email, String role, String name, String surname, String phone) {
+
+        public static UserProfile of(User user) {
+            return new UserProfile(user.getId(), user.getEmail(), user.getRole(), user.getName(), user.getSurname(), user.getPhone());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cursorraffle.backend.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Open ad view sessions, at most one per user, shared by every replica.
+ * Every time comparison uses the database clock, so replicas with skewed
+ * clocks agree on when a view is long enough and when it has expired.
+ */
+@Repository
+public class ViewSessionRepository {
+
+    // A new start replaces whatever the user had open
+    private static final String OPEN = """
+            INSERT INTO ad_view_sessions (user_id, session_id, advertiser_id, started_at)
+            VALUES (:userId, :sessionId, :advertiserId, now())
+            ON CONFLICT (user_id) DO UPDATE
+            SET session_id = EXCLUDED.session_id, advertiser_id = EXCLUDED.advertiser_id, started_at = EXCLUDED.started_at
+            """;
+
+    // Locks the session, deletes it if it is old enough, and reports its age either way
+    private static final String COMPLETE = """
+            WITH found AS (
+                SELECT user_id, advertiser_id, now() - started_at AS age FROM ad_view_sessions
+                WHERE user_id = :userId AND session_id = :sessionId
+                AND started_at > now() - make_interval(secs => :ttl)
+                FOR UPDATE
+            ),
+            done AS (
+                DELETE FROM ad_view_sessions v USING found o
+                WHERE v.user_id = o.user_id AND o.age >= make_interval(secs => :minView)
+                RETURNING v.user_id
+            )
+            SELECT advertiser_id, EXTRACT(EPOCH FROM age)::float8 AS age_seconds, EXISTS (SELECT 1 FROM done) AS completed
+            FROM found
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ViewSessionRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> open(long userId, long sessionId, Long advertiserId) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(OPEN)
+                .bind("userId", userId)
+                .bind("sessionId", sessionId);
+        spec = advertiserId == null
+                ? spec.bindNull("advertiserId", Long.class)
+                : spec.bind("advertiserId", advertiserId);
+        return spec.then();
+    }
+
+    /**
+     * Consumes the session once it is at least {@code minView} old. Empty
+     * when there is no such open session; {@code completed} is false when it
+     * is too young and was left open.
+     */
+    public Mono<ViewCompletion> complete(long userId, long sessionId, Duration minView, Duration ttl) {
+        return databaseClient.sql(COMPLETE)
+                .bind("userId", userId)
+                .bind("sessionId", sessionId)
+                .bind("minView", seconds(minView))
+                .bind("ttl", seconds(ttl))
+                .map((row, meta) -> new ViewCompletion(
+                        row.get("advertiser_id", Long.class),
+                        Duration.ofNanos((long) (row.get("age_seconds", Double.class) * 1e9)),
+                        Boolean.TRUE.equals(row.get("completed", Boolean.class))))
+                .one();
+    }
+
+    /**
+     * Deletes the given users' sessions that are older than {@code ttl}; a
+     * session started again since is kept.
+     */
+    public Mono<Long> expire(Collection<Long> userIds, Duration ttl) {
+        return databaseClient.sql("DELETE FROM ad_view_sessions WHERE user_id = ANY(:userIds) "
+                        + "AND started_at <= now() - make_interval(secs => :ttl)")
+                .bind("userIds", userIds.toArray(Long[]::new))
+                .bind("ttl", seconds(ttl))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+
+    public record ViewCompletion(Long advertiserId, Duration age, boolean completed) {
+    }
+}
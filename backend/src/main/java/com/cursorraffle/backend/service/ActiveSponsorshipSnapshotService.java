@@ -0,0 +1,138 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized snapshot of the approved sponsorships served to the mobile feed.
+ * The JSON body, its gzip encoding and an ETag are computed once per change,
+ * so a polling client costs a hash comparison rather than a query.
+ * <p>
+ * Local writes call {@link #invalidate()}; the TTL bounds staleness for
+ * changes made by other instances.
+ */
+@Service
+public class ActiveSponsorshipSnapshotService {
+
+    private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    private final AtomicReference<Mono<Snapshot>> current = new AtomicReference<>();
+
+    public ActiveSponsorshipSnapshotService(SponsorshipApplicationRepository sponsorshipRepository,
+                                            ObjectMapper objectMapper,
+                                            @Value("${app.sponsorship.snapshot-ttl:30s}") Duration ttl) {
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the current snapshot, rebuilding it at most once for any number
+     * of concurrent callers when it has been invalidated or has expired.
+     */
+    public Mono<Snapshot> snapshot() {
+        while (true) {
+            Mono<Snapshot> existing = current.get();
+            if (existing != null) {
+                return existing.flatMap(snapshot -> {
+                    if (snapshot.isExpired(ttl)) {
+                        current.compareAndSet(existing, null);
+                        return snapshot();
+                    }
+                    return Mono.just(snapshot);
+                });
+            }
+            Mono<Snapshot> rebuild = build().cache();
+            if (current.compareAndSet(null, rebuild)) {
+                return rebuild.doOnError(e -> current.compareAndSet(rebuild, null));
+            }
+        }
+    }
+
+    public void invalidate() {
+        current.set(null);
+    }
+
+    private Mono<Snapshot> build() {
+        return sponsorshipRepository.findByStatus("APPROVED")
+                .collectList()
+                .map(sponsorships -> {
+                    try {
+                        return Snapshot.of(objectMapper.writeValueAsBytes(sponsorships));
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("Could not serialize active sponsorships", e);
+                    }
+                });
+    }
+
+    /**
+     * The encoded list in both codings. Each coding is its own representation
+     * with its own strong tag, {@code gzipEtag} being {@code etag} with a
+     * {@code -gz} suffix, so caches never serve one coding for the other.
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag, String gzipEtag, long builtAtNanos) {
+
+        static Snapshot of(byte[] json) {
+            String etag = etag(json);
+            return new Snapshot(json, gzip(json), etag, etag.substring(0, etag.length() - 1) + "-gz\"", System.nanoTime());
+        }
+
+        boolean isExpired(Duration ttl) {
+            return System.nanoTime() - builtAtNanos > ttl.toNanos();
+        }
+
+        /**
+         * True when any tag in an {@code If-None-Match} header matches {@code etag}, ignoring weak prefixes.
+         */
+        public static boolean matches(String ifNoneMatch, String etag) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String etag(byte[] json) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+                return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.AdvertiserRepository;
+import com.cursorraffle.backend.repository.ImpressionCountRepository;
+import com.cursorraffle.backend.repository.ImpressionCountRepository.ImpressionDelta;
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository.StatusTypeCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory analytics counters maintained by the write paths.
+ * The counters are reconciled against the database on startup and on a fixed
+ * schedule, which corrects drift from failed writes or other instances.
+ */
+@Slf4j
+@Service
+public class AnalyticsRollupService implements SmartLifecycle {
+
+    private final AdvertiserRepository advertiserRepository;
+    private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final ImpressionCountRepository impressionCountRepository;
+    private final ImpressionIngestionService ingestionService;
+    private final Duration reconcileInterval;
+
+    private final AtomicLong totalAdvertisers = new AtomicLong();
+    private final AtomicLong verifiedAdvertisers = new AtomicLong();
+    private final Map<String, AtomicLong> applicationsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> applicationsByType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> sprintImpressions = new ConcurrentHashMap<>();
+    private volatile Disposable reconcileTimer;
+
+    public AnalyticsRollupService(AdvertiserRepository advertiserRepository,
+                                  SponsorshipApplicationRepository sponsorshipRepository,
+                                  ImpressionCountRepository impressionCountRepository,
+                                  ImpressionIngestionService ingestionService,
+                                  @Value("${app.analytics.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.advertiserRepository = advertiserRepository;
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.impressionCountRepository = impressionCountRepository;
+        this.ingestionService = ingestionService;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public void advertiserRegistered(Boolean verified) {
+        totalAdvertisers.incrementAndGet();
+        if (Boolean.TRUE.equals(verified)) {
+            verifiedAdvertisers.incrementAndGet();
+        }
+    }
+
+    public void advertiserVerified() {
+        verifiedAdvertisers.incrementAndGet();
+    }
+
+    public void advertiserUnverified() {
+        verifiedAdvertisers.decrementAndGet();
+    }
+
+    public void applicationCreated(String type, String status) {
+        counter(applicationsByStatus, status).incrementAndGet();
+        counter(applicationsByType, type).incrementAndGet();
+    }
+
+    public void applicationStatusChanged(String from, String to) {
+        counter(applicationsByStatus, from).decrementAndGet();
+        counter(applicationsByStatus, to).incrementAndGet();
+    }
+
+    public void impressionsRecorded(String sprintId, long count) {
+        sprintImpressions.computeIfAbsent(sprintId, k -> new LongAdder()).add(count);
+    }
+
+    /**
+     * Point-in-time view of all counters, cheap enough to build per request.
+     */
+    public Map<String, Object> snapshot() {
+        long totalApplications = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : applicationsByStatus.entrySet()) {
+            byStatus.put(entry.getKey(), entry.getValue().get());
+            totalApplications += entry.getValue().get();
+        }
+        Map<String, Long> byType = new HashMap<>();
+        applicationsByType.forEach((type, count) -> byType.put(type, count.get()));
+
+        long totalImpressions = 0;
+        Map<String, Long> bySprint = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : sprintImpressions.entrySet()) {
+            long count = entry.getValue().sum();
+            bySprint.put(entry.getKey(), count);
+            totalImpressions += count;
+        }
+
+        return Map.of(
+                "totalAdvertisers", totalAdvertisers.get(),
+                "verifiedAdvertisers", verifiedAdvertisers.get(),
+                "totalApplications", totalApplications,
+                "applicationsByStatus", byStatus,
+                "applicationsByType", byType,
+                "totalImpressions", totalImpressions,
+                "sprintImpressions", bySprint
+        );
+    }
+
+    /**
+     * Replaces the counters with fresh values from the database.
+     * Impressions still sitting in the write-behind buffer are added on top.
+     */
+    public Mono<Void> reconcile() {
+        Mono<Long> advertisers = advertiserRepository.count();
+        Mono<Long> verified = advertiserRepository.countByIsVerified(true);
+        Mono<List<StatusTypeCount>> applications = sponsorshipRepository.countByStatusAndType().collectList();
+        Mono<List<ImpressionDelta>> impressions = impressionCountRepository.sumBySprint().collectList();
+
+        return Mono.zip(advertisers, verified, applications, impressions)
+                .doOnNext(counts -> {
+                    totalAdvertisers.set(counts.getT1());
+                    verifiedAdvertisers.set(counts.getT2());
+
+                    Map<String, Long> byStatus = new HashMap<>();
+                    Map<String, Long> byType = new HashMap<>();
+                    for (StatusTypeCount row : counts.getT3()) {
+                        byStatus.merge(keyOf(row.status()), row.total(), Long::sum);
+                        byType.merge(keyOf(row.type()), row.total(), Long::sum);
+                    }
+                    replace(applicationsByStatus, byStatus);
+                    replace(applicationsByType, byType);
+
+                    Map<String, Long> bySprint = new HashMap<>(ingestionService.getBufferedBySprint());
+                    for (ImpressionDelta row : counts.getT4()) {
+                        bySprint.merge(row.sprintId(), row.count(), Long::sum);
+                    }
+                    sprintImpressions.keySet().retainAll(bySprint.keySet());
+                    bySprint.forEach((sprintId, count) -> {
+                        LongAdder adder = sprintImpressions.computeIfAbsent(sprintId, k -> new LongAdder());
+                        adder.reset();
+                        adder.add(count);
+                    });
+                })
+                .doOnError(e -> log.warn("Analytics reconciliation failed, keeping in-memory counters", e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static AtomicLong counter(Map<String, AtomicLong> counters, String key) {
+        return counters.computeIfAbsent(keyOf(key), k -> new AtomicLong());
+    }
+
+    private static String keyOf(String value) {
+        return value == null ? "UNKNOWN" : value;
+    }
+
+    private static void replace(Map<String, AtomicLong> counters, Map<String, Long> values) {
+        counters.keySet().retainAll(values.keySet());
+        values.forEach((key, value) -> counters.computeIfAbsent(key, k -> new AtomicLong()).set(value));
+    }
+
+    @Override
+    public void start() {
+        reconcileTimer = Flux.interval(Duration.ZERO, reconcileInterval, Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile(), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = reconcileTimer;
+        if (timer != null) {
+            timer.dispose();
+            reconcileTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reconcileTimer != null;
+    }
+}
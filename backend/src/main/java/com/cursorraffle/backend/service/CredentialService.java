@@ -0,0 +1,51 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.CredentialRepository;
+import com.cursorraffle.backend.repository.CredentialRepository.Credential;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Email to credential lookup with a bounded, expiring cache in front of
+ * {@link CredentialRepository}. Only found credentials are cached; the
+ * register and approve paths evict the affected email.
+ */
+@Service
+public class CredentialService {
+
+    private final CredentialRepository credentialRepository;
+    private final Cache<String, Credential> cache;
+
+    public CredentialService(CredentialRepository credentialRepository,
+                             @Value("${app.security.credential-cache.max-size:10000}") long maxSize,
+                             @Value("${app.security.credential-cache.ttl:5m}") Duration ttl) {
+        this.credentialRepository = credentialRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Mono<Credential> findByEmail(String email) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        Credential cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return credentialRepository.findByEmail(email)
+                .doOnNext(credential -> cache.put(email, credential));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+}
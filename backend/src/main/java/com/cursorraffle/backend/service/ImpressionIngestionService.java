@@ -0,0 +1,195 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.ImpressionCountRepository;
+import com.cursorraffle.backend.repository.ImpressionCountRepository.ImpressionDelta;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for ad impressions.
+ * Views are coalesced in memory per (advertiser, sprint) and flushed to the
+ * database in multi-row upserts when the buffer reaches the batch size or the
+ * flush interval elapses, whichever comes first.
+ */
+@Service
+public class ImpressionIngestionService extends WriteBehindService<ImpressionDelta> {
+
+    /** Marks a counter that was evicted from the buffer; writers must re-resolve it. */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final ImpressionCountRepository impressionCountRepository;
+    private final int batchSize;
+    private final long maxBuffered;
+    private final long maxPerRequest;
+
+    private final Map<ImpressionKey, AtomicLong> buffer = new ConcurrentHashMap<>();
+    private final AtomicLong buffered = new AtomicLong();
+
+    public ImpressionIngestionService(ImpressionCountRepository impressionCountRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.impressions.batch-size:500}") int batchSize,
+                                      @Value("${app.impressions.max-buffered:1000000}") long maxBuffered,
+                                      @Value("${app.impressions.max-per-request:10000}") long maxPerRequest,
+                                      @Value("${app.impressions.flush-interval:1s}") Duration flushInterval,
+                                      @Value("${app.impressions.shutdown-timeout:10s}") Duration shutdownTimeout,
+                                      @Value("${app.impressions.max-attempts:10}") int maxAttempts) {
+        super("Impression", batchSize, flushInterval, shutdownTimeout, maxAttempts, meterRegistry);
+        this.impressionCountRepository = impressionCountRepository;
+        this.batchSize = batchSize;
+        this.maxBuffered = maxBuffered;
+        // A request larger than the whole buffer could never be accepted
+        this.maxPerRequest = Math.min(maxPerRequest, maxBuffered);
+    }
+
+    /**
+     * Buffers {@code count} views for the given advertiser and sprint.
+     * Returns false without recording anything when the buffer is full, so
+     * callers can push back on the client instead of growing the heap.
+     */
+    public boolean record(Long advertiserId, String sprintId, long count) {
+        if (count <= 0) {
+            return true;
+        }
+        if (!reserve(count)) {
+            return false;
+        }
+        add(new ImpressionKey(advertiserId, sprintId), count);
+        flushIfFull();
+        return true;
+    }
+
+    /**
+     * Buffers a batch of impressions all-or-nothing, so a client retrying a
+     * rejected batch never double-counts part of it.
+     */
+    public boolean recordAll(List<ImpressionDelta> impressions) {
+        long total = impressions.stream().mapToLong(ImpressionDelta::count).filter(c -> c > 0).sum();
+        if (total == 0) {
+            return true;
+        }
+        if (!reserve(total)) {
+            return false;
+        }
+        for (ImpressionDelta impression : impressions) {
+            if (impression.count() > 0) {
+                add(new ImpressionKey(impression.advertiserId(), impression.sprintId()), impression.count());
+            }
+        }
+        flushIfFull();
+        return true;
+    }
+
+    /**
+     * The most views one request may carry; callers reject larger ones
+     * outright, since retrying them cannot help.
+     */
+    public long getMaxPerRequest() {
+        return maxPerRequest;
+    }
+
+    public long getBufferedCount() {
+        return buffered.get();
+    }
+
+    /**
+     * Impressions accepted but not yet written, per sprint.
+     */
+    public Map<String, Long> getBufferedBySprint() {
+        Map<String, Long> bySprint = new HashMap<>();
+        buffer.forEach((key, counter) -> {
+            long count = counter.get();
+            if (count > 0) {
+                bySprint.merge(key.sprintId(), count, Long::sum);
+            }
+        });
+        return bySprint;
+    }
+
+    private boolean reserve(long count) {
+        if (count > maxPerRequest) {
+            return false;
+        }
+        while (true) {
+            long current = buffered.get();
+            if (current > maxBuffered - count) {
+                return false;
+            }
+            if (buffered.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    protected List<ImpressionDelta> drain() {
+        List<ImpressionDelta> deltas = new ArrayList<>();
+        buffer.forEach((key, counter) -> {
+            long count = counter.getAndSet(0);
+            if (count > 0) {
+                deltas.add(new ImpressionDelta(key.advertiserId(), key.sprintId(), count));
+            } else if (counter.compareAndSet(0, RETIRED)) {
+                // Idle since the last flush; evict so the key set stays bounded
+                buffer.remove(key, counter);
+            }
+        });
+        return deltas;
+    }
+
+    @Override
+    protected Mono<Long> write(List<ImpressionDelta> batch) {
+        return impressionCountRepository.upsertAll(batch);
+    }
+
+    @Override
+    protected void written(List<ImpressionDelta> batch) {
+        release(batch);
+    }
+
+    @Override
+    protected void dropped(List<ImpressionDelta> batch) {
+        release(batch);
+    }
+
+    private void release(List<ImpressionDelta> batch) {
+        buffered.addAndGet(-batch.stream().mapToLong(ImpressionDelta::count).sum());
+    }
+
+    // Adds by compare-and-set, never blindly, so nothing is ever added to a
+    // retired counter: a writer that finds one re-queues on a fresh counter
+    private void add(ImpressionKey key, long count) {
+        while (true) {
+            AtomicLong counter = buffer.computeIfAbsent(key, k -> new AtomicLong());
+            for (long current = counter.get(); current != RETIRED; current = counter.get()) {
+                if (counter.compareAndSet(current, current + count)) {
+                    return;
+                }
+            }
+            // Counter was retired by a concurrent flush; drop it and retry on a fresh one
+            buffer.remove(key, counter);
+        }
+    }
+
+    private void flushIfFull() {
+        if (buffered.get() >= batchSize && !isFlushing()) {
+            flush().subscribe();
+        }
+    }
+
+    @Override
+    protected boolean hasPending() {
+        return buffered.get() > 0;
+    }
+
+    private record ImpressionKey(Long advertiserId, String sprintId) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.MediaAssetRepository;
+import com.cursorraffle.backend.repository.MediaAssetRepository.MediaAsset;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Index of stored ad media. Each asset is a row in {@code media_assets} and
+ * a file under {@code app.upload.dir/assets}, a volume every replica mounts,
+ * so any replica can serve what another stored. Assets never change once
+ * stored, so lookups by id are cached.
+ */
+@Service
+public class MediaCatalogService {
+
+    static final Map<String, String> EXTENSIONS = Map.of(
+            "video/mp4", "mp4",
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp");
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final Path mediaDir;
+    private final Cache<String, MediaAsset> assets;
+
+    public MediaCatalogService(MediaAssetRepository mediaAssetRepository,
+                               @Value("${app.upload.dir:./data/media}") String dir,
+                               @Value("${app.media.catalog-cache-size:10000}") long cacheSize) {
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.mediaDir = Paths.get(dir, "assets");
+        this.assets = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public Mono<MediaAsset> find(String id) {
+        return Mono.justOrEmpty(assets.getIfPresent(id))
+                .switchIfEmpty(Mono.defer(() -> mediaAssetRepository.findById(id)
+                        .doOnNext(asset -> assets.put(id, asset))));
+    }
+
+    /**
+     * Every asset of the given advertisers, in one query.
+     */
+    public Flux<MediaAsset> assetsOf(Collection<Long> advertiserIds) {
+        return mediaAssetRepository.findByAdvertiserIds(advertiserIds)
+                .doOnNext(asset -> assets.put(asset.id(), asset));
+    }
+
+    public Path pathOf(MediaAsset asset) {
+        return mediaDir.resolve(asset.id() + "." + EXTENSIONS.getOrDefault(asset.contentType(), "bin"));
+    }
+
+    Path mediaDir() {
+        return mediaDir;
+    }
+
+    /**
+     * Records a finished upload whose file is already at {@link #pathOf},
+     * ending the upload in the same statement. Empty if the upload was
+     * cancelled meanwhile.
+     */
+    Mono<MediaAsset> store(MediaAsset asset) {
+        return mediaAssetRepository.insertFromUpload(asset)
+                .doOnNext(stored -> assets.put(stored.id(), stored));
+    }
+}
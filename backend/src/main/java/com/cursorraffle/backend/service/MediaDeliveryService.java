@@ -0,0 +1,153 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.MediaAssetRepository.MediaAsset;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the opening bytes of the ads that are live now or at the next sprint
+ * start in memory, so the burst of players starting at a sprint boundary
+ * reads them without touching the disk.
+ * <p>
+ * Segments are held in direct buffers and handed to Netty as read-only
+ * slices, so serving one is never a heap copy. The cache is bounded by bytes
+ * and uses Caffeine's frequency-aware eviction, so when the scheduled ads do
+ * not all fit, the most requested ones stay. Everything else is served from
+ * the file by the handler.
+ */
+@Slf4j
+@Service
+public class MediaDeliveryService implements SmartLifecycle {
+
+    private final MediaCatalogService mediaCatalogService;
+    private final SponsorCalendarService sponsorCalendarService;
+    private final SprintScheduleService sprintScheduleService;
+    private final int segmentSize;
+    private final Duration warmInterval;
+
+    private final AsyncCache<String, ByteBuffer> segments;
+    private volatile Set<String> scheduled = Set.of();
+    private volatile Disposable warmTimer;
+
+    public MediaDeliveryService(MediaCatalogService mediaCatalogService,
+                                SponsorCalendarService sponsorCalendarService,
+                                SprintScheduleService sprintScheduleService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.media.hot-segment-size:1048576}") int segmentSize,
+                                @Value("${app.media.segment-cache-max-bytes:268435456}") long maxBytes,
+                                @Value("${app.media.warm-interval:30s}") Duration warmInterval) {
+        this.mediaCatalogService = mediaCatalogService;
+        this.sponsorCalendarService = sponsorCalendarService;
+        this.sprintScheduleService = sprintScheduleService;
+        this.segmentSize = segmentSize;
+        this.warmInterval = warmInterval;
+        this.segments = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, ByteBuffer segment) -> segment.capacity())
+                .executor(task -> Schedulers.boundedElastic().schedule(task))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, segments.synchronous(), "media.segments");
+    }
+
+    /**
+     * The cached opening segment of {@code asset}, as a read-only view, or
+     * null if it is not in memory yet. A miss on a scheduled ad starts
+     * loading it in the background.
+     */
+    public ByteBuffer cachedSegment(MediaAsset asset) {
+        CompletableFuture<ByteBuffer> segment = segments.getIfPresent(asset.id());
+        if (segment != null && segment.isDone() && !segment.isCompletedExceptionally()) {
+            return segment.join().asReadOnlyBuffer();
+        }
+        if (segment == null && scheduled.contains(asset.id())) {
+            load(asset);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the opening segments of every asset owned by an advertiser that
+     * is live now or at the start of the next sprint.
+     */
+    public Mono<Void> warm() {
+        Instant now = Instant.now();
+        Instant nextStart = sprintScheduleService.nextSprint(now).start();
+        Set<Long> advertiserIds = new HashSet<>(sponsorCalendarService.liveAdvertiserIds(now));
+        advertiserIds.addAll(sponsorCalendarService.liveAdvertiserIds(nextStart));
+
+        return mediaCatalogService.assetsOf(advertiserIds)
+                .doOnNext(this::load)
+                .map(MediaAsset::id)
+                .collect(Collectors.toSet())
+                .doOnNext(ids -> scheduled = ids)
+                .then();
+    }
+
+    private void load(MediaAsset asset) {
+        segments.get(asset.id(), (id, executor) -> CompletableFuture.supplyAsync(() -> read(asset), executor));
+    }
+
+    private ByteBuffer read(MediaAsset asset) {
+        try (FileChannel channel = FileChannel.open(mediaCatalogService.pathOf(asset), StandardOpenOption.READ)) {
+            ByteBuffer segment = ByteBuffer.allocateDirect((int) Math.min(segmentSize, channel.size()));
+            while (segment.hasRemaining()) {
+                if (channel.read(segment, segment.position()) < 0) {
+                    break;
+                }
+            }
+            return segment.flip();
+        } catch (IOException e) {
+            log.warn("Could not load media segment {}", asset.id(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        warmTimer = Flux.interval(Duration.ZERO, warmInterval, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> warm()
+                        .onErrorResume(e -> {
+                            log.error("Media segment warm-up failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = warmTimer;
+        if (timer != null) {
+            timer.dispose();
+            warmTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return warmTimer != null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.cursorraffle.backend.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalDouble;
+
+/**
+ * Reads just enough of a stored media file to check what it claims to be.
+ * Only box and file headers are read with positional reads, so probing a
+ * 100 MB video costs a few small buffers, never the payload.
+ */
+final class MediaProbe {
+
+    private static final int MAX_BOXES = 1024;
+
+    private MediaProbe() {
+    }
+
+    /**
+     * Whether the file's leading bytes match {@code contentType}.
+     */
+    static boolean matchesType(Path file, String contentType) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(12);
+            channel.read(head, 0);
+            byte[] b = head.array();
+            int n = head.position();
+            return switch (contentType) {
+                case "video/mp4" -> n >= 8 && "ftyp".equals(ascii(b, 4, 4));
+                case "image/jpeg" -> n >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF;
+                case "image/png" -> n >= 8 && (b[0] & 0xFF) == 0x89 && "PNG".equals(ascii(b, 1, 3));
+                case "image/webp" -> n >= 12 && "RIFF".equals(ascii(b, 0, 4)) && "WEBP".equals(ascii(b, 8, 4));
+                default -> false;
+            };
+        }
+    }
+
+    /**
+     * Duration of an MP4 from {@code moov/mvhd}, wherever the moov box sits.
+     * Empty when the file has no readable movie header.
+     */
+    static OptionalDouble mp4DurationSeconds(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long moov = findBox(channel, 0, channel.size(), "moov");
+            if (moov < 0) {
+                return OptionalDouble.empty();
+            }
+            long[] moovBounds = bounds(channel, moov);
+            long mvhd = findBox(channel, moovBounds[0], moovBounds[1], "mvhd");
+            if (mvhd < 0) {
+                return OptionalDouble.empty();
+            }
+            long payload = bounds(channel, mvhd)[0];
+            ByteBuffer header = ByteBuffer.allocate(32);
+            channel.read(header, payload);
+            header.flip();
+            // Version 0 needs 20 bytes up to duration, version 1 needs 32; the rest may not have arrived yet
+            if (!header.hasRemaining() || header.remaining() < ((header.get(0) & 0xFF) == 1 ? 32 : 20)) {
+                return OptionalDouble.empty();
+            }
+            int version = header.get() & 0xFF;
+            long timescale;
+            long duration;
+            if (version == 1) {
+                header.position(4 + 16);
+                timescale = header.getInt() & 0xFFFFFFFFL;
+                duration = header.getLong();
+            } else {
+                header.position(4 + 8);
+                timescale = header.getInt() & 0xFFFFFFFFL;
+                duration = header.getInt() & 0xFFFFFFFFL;
+            }
+            return timescale == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) duration / timescale);
+        }
+    }
+
+    // Offset of the first box of that type within [start, end), or -1
+    private static long findBox(FileChannel channel, long start, long end, String type) throws IOException {
+        long position = start;
+        for (int i = 0; i < MAX_BOXES && position + 8 <= end; i++) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, position);
+            header.flip();
+            if (header.remaining() < 8) {
+                return -1;
+            }
+            long size = header.getInt() & 0xFFFFFFFFL;
+            String boxType = ascii(header.array(), 4, 4);
+            if (size == 1 && header.limit() >= 16) {
+                size = header.getLong(8);
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (type.equals(boxType)) {
+                return position;
+            }
+            if (size < 8) {
+                return -1;
+            }
+            position += size;
+        }
+        return -1;
+    }
+
+    // {payloadStart, boxEnd} of the box at offset
+    private static long[] bounds(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        channel.read(header, offset);
+        header.flip();
+        long size = header.getInt() & 0xFFFFFFFFL;
+        if (size == 1 && header.limit() >= 16) {
+            return new long[]{offset + 16, offset + header.getLong(8)};
+        }
+        return new long[]{offset + 8, size == 0 ? channel.size() : offset + size};
+    }
+
+    private static String ascii(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+}
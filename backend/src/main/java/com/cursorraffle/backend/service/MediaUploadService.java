@@ -0,0 +1,424 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.MediaAssetRepository.MediaAsset;
+import com.cursorraffle.backend.repository.MediaUploadRepository;
+import com.cursorraffle.backend.repository.MediaUploadRepository.Upload;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked, resumable ad media uploads streamed straight to disk.
+ * <p>
+ * An upload is created with its declared type, length and optional SHA-256,
+ * and rejected up front if those break the {@code app.upload.*} limits.
+ * Sessions live in {@code media_uploads} and the partial files on the media
+ * volume every replica mounts, so a chunk or a resume may land on any
+ * replica. Chunks are appended at the stored offset under a lease, so two
+ * replicas never write the same upload at once; each chunk's
+ * {@link DataBuffer}s are hashed and written with an
+ * {@link AsynchronousFileChannel} as they arrive, and the offset is
+ * committed only when the chunk is fully written. A failed or aborted chunk
+ * is simply resent. The running digest is kept per replica; a replica that
+ * did not write the previous chunk rehashes the stored prefix.
+ * File type and video duration are checked from the stored headers as soon
+ * as they have arrived, and the checksum when the last byte lands.
+ */
+@Slf4j
+@Service
+public class MediaUploadService implements SmartLifecycle {
+
+    private static final Set<String> VIDEO_TYPES = Set.of("video/mp4");
+    private static final int REHASH_BUFFER = 64 * 1024;
+
+    private final MediaUploadRepository mediaUploadRepository;
+    private final MediaCatalogService mediaCatalogService;
+    private final Path uploadDir;
+    private final long maxVideoSize;
+    private final long maxImageSize;
+    private final int minVideoDuration;
+    private final int maxVideoDuration;
+    private final Duration sessionTtl;
+    private final Duration chunkLease;
+
+    // Digest after the last chunk this replica committed, by upload id
+    private final Cache<String, Checkpoint> checkpoints;
+    private volatile Disposable cleanupTimer;
+
+    public MediaUploadService(MediaUploadRepository mediaUploadRepository,
+                              MediaCatalogService mediaCatalogService,
+                              @Value("${app.upload.dir:./data/media}") String dir,
+                              @Value("${app.upload.max-video-size:104857600}") long maxVideoSize,
+                              @Value("${app.upload.max-image-size:10485760}") long maxImageSize,
+                              @Value("${app.upload.min-video-duration:15}") int minVideoDuration,
+                              @Value("${app.upload.max-video-duration:300}") int maxVideoDuration,
+                              @Value("${app.upload.session-ttl:24h}") Duration sessionTtl,
+                              @Value("${app.upload.chunk-lease:10m}") Duration chunkLease) {
+        this.mediaUploadRepository = mediaUploadRepository;
+        this.mediaCatalogService = mediaCatalogService;
+        this.uploadDir = Paths.get(dir, "incoming");
+        this.maxVideoSize = maxVideoSize;
+        this.maxImageSize = maxImageSize;
+        this.minVideoDuration = minVideoDuration;
+        this.maxVideoDuration = maxVideoDuration;
+        this.sessionTtl = sessionTtl;
+        this.chunkLease = chunkLease;
+        this.checkpoints = Caffeine.newBuilder()
+                .expireAfterAccess(sessionTtl)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Opens an upload after checking the declared type, length and duration.
+     */
+    public Mono<Upload> create(long advertiserId, String contentType, long length, String sha256, Integer durationSeconds) {
+        if (contentType == null || !MediaCatalogService.EXTENSIONS.containsKey(contentType)) {
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Desteklenmeyen dosya türü: " + contentType);
+        }
+        boolean video = VIDEO_TYPES.contains(contentType);
+        long limit = video ? maxVideoSize : maxImageSize;
+        if (length <= 0 || length > limit) {
+            throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Dosya boyutu 1 ile " + limit + " bayt arasında olmalıdır.");
+        }
+        if (video && durationSeconds != null && (durationSeconds < minVideoDuration || durationSeconds > maxVideoDuration)) {
+            throw new UploadRejectedException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Video süresi " + minVideoDuration + "-" + maxVideoDuration + " saniye olmalıdır.");
+        }
+        if (sha256 != null && !sha256.matches("(?i)[0-9a-f]{64}")) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "sha256 64 haneli hex olmalıdır.");
+        }
+        Upload upload = new Upload(UUID.randomUUID().toString(), advertiserId, contentType, length,
+                sha256 == null ? null : sha256.toLowerCase(), UUID.randomUUID() + ".part",
+                0, false, null, Instant.now());
+        return Mono.fromCallable(() -> {
+                    Files.createDirectories(uploadDir);
+                    return Files.createFile(partOf(upload));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(IOException.class, e -> new IllegalStateException("Could not create upload file", e))
+                .then(mediaUploadRepository.insert(upload)
+                        // No row points at the part file, so nothing else would ever delete it
+                        .onErrorResume(e -> Mono.fromRunnable(() -> deleteQuietly(partOf(upload)))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.error(e))));
+    }
+
+    public Mono<Upload> find(String uploadId) {
+        return mediaUploadRepository.findById(uploadId);
+    }
+
+    /**
+     * Streams one chunk to disk at {@code offset}, which must equal the
+     * upload's stored offset. Completes with the new offset and, for the
+     * last chunk, the stored asset.
+     */
+    public Mono<ChunkResult> append(Upload upload, long offset, Flux<DataBuffer> body) {
+        return mediaUploadRepository.lock(upload.id(), offset, chunkLease)
+                .switchIfEmpty(Mono.defer(() -> mediaUploadRepository.findById(upload.id())
+                        .switchIfEmpty(Mono.error(() -> new UploadRejectedException(HttpStatus.NOT_FOUND, "Yükleme bulunamadı.")))
+                        .flatMap(current -> Mono.error(current.offset() != offset
+                                ? new UploadRejectedException(HttpStatus.CONFLICT, "Beklenen offset " + current.offset() + ".")
+                                : new UploadRejectedException(HttpStatus.CONFLICT, "Bu yükleme için başka bir parça yazılıyor.")))))
+                .flatMap(locked -> write(locked, body)
+                        .onErrorResume(e -> (e instanceof InvalidUploadException ? cancel(locked) : release(locked))
+                                .then(Mono.error(e)))
+                        .doOnCancel(() -> release(locked).subscribe()));
+    }
+
+    private Mono<ChunkResult> write(Upload upload, Flux<DataBuffer> body) {
+        Path part = partOf(upload);
+        return digestAt(upload, part).flatMap(digest -> {
+            AtomicLong received = new AtomicLong(upload.offset());
+            Flux<DataBuffer> checked = body.map(buffer -> {
+                if (received.addAndGet(buffer.readableByteCount()) > upload.length()) {
+                    DataBufferUtils.release(buffer);
+                    throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Gönderilen veri beyan edilen boyutu aşıyor.");
+                }
+                try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                    buffers.forEachRemaining(digest::update);
+                }
+                return buffer;
+            });
+            return Mono.using(
+                            () -> AsynchronousFileChannel.open(part, StandardOpenOption.WRITE),
+                            channel -> DataBufferUtils.write(checked, channel, upload.offset())
+                                    .doOnNext(DataBufferUtils::release)
+                                    .then(),
+                            this::closeQuietly)
+                    .then(Mono.defer(() -> verifyHeaders(upload, part, received.get())))
+                    .flatMap(checkedUpload -> received.get() == upload.length()
+                            ? finish(checkedUpload, part, digest).map(asset -> new ChunkResult(upload.length(), asset))
+                            : mediaUploadRepository.commit(upload.id(), upload.offset(), received.get(),
+                                            checkedUpload.typeChecked(), checkedUpload.durationSeconds())
+                                    .switchIfEmpty(Mono.error(() -> new UploadRejectedException(HttpStatus.CONFLICT,
+                                            "Bu yükleme için başka bir parça yazıldı.")))
+                                    .map(committed -> {
+                                        checkpoints.put(upload.id(), new Checkpoint(committed.offset(), digest));
+                                        return new ChunkResult(committed.offset(), null);
+                                    }));
+        });
+    }
+
+    /**
+     * Abandons an upload and deletes its partial file.
+     */
+    public Mono<Void> cancel(Upload upload) {
+        checkpoints.invalidate(upload.id());
+        return mediaUploadRepository.delete(upload.id())
+                .flatMap(partFile -> Mono.fromRunnable(() -> deleteQuietly(uploadDir.resolve(partFile)))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    private Mono<Void> release(Upload upload) {
+        return mediaUploadRepository.unlock(upload.id())
+                .onErrorResume(e -> {
+                    log.warn("Could not release upload {}; its lease will expire", upload.id(), e);
+                    return Mono.empty();
+                });
+    }
+
+    // A copy of this replica's checkpoint if it is current, else the stored prefix rehashed
+    private Mono<MessageDigest> digestAt(Upload upload, Path part) {
+        Checkpoint checkpoint = checkpoints.getIfPresent(upload.id());
+        if (checkpoint != null && checkpoint.offset() == upload.offset()) {
+            return Mono.just(copy(checkpoint.digest()));
+        }
+        return Mono.fromCallable(() -> {
+            MessageDigest digest = newDigest();
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(REHASH_BUFFER);
+                long position = 0;
+                while (position < upload.offset()) {
+                    buffer.clear().limit((int) Math.min(REHASH_BUFFER, upload.offset() - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IllegalStateException("Upload " + upload.id() + " is shorter than its offset");
+                    }
+                    digest.update(buffer.flip());
+                    position += read;
+                }
+            }
+            return digest;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Rejects a mislabelled file or an out-of-range video as soon as the headers are on disk
+    private Mono<Upload> verifyHeaders(Upload upload, Path part, long offset) {
+        boolean video = VIDEO_TYPES.contains(upload.contentType());
+        if (upload.typeChecked() && (upload.durationSeconds() != null || !video)) {
+            return Mono.just(upload);
+        }
+        return Mono.fromCallable(() -> {
+            boolean typeChecked = upload.typeChecked();
+            Double durationSeconds = upload.durationSeconds();
+            try {
+                if (!typeChecked && offset >= 12) {
+                    if (!MediaProbe.matchesType(part, upload.contentType())) {
+                        throw new InvalidUploadException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Dosya içeriği " + upload.contentType() + " değil.");
+                    }
+                    typeChecked = true;
+                }
+                if (durationSeconds == null && video) {
+                    OptionalDouble duration = MediaProbe.mp4DurationSeconds(part);
+                    if (duration.isPresent()) {
+                        checkDuration(duration.getAsDouble());
+                        durationSeconds = duration.getAsDouble();
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not inspect upload " + upload.id(), e);
+            }
+            return new Upload(upload.id(), upload.advertiserId(), upload.contentType(), upload.length(),
+                    upload.expectedSha256(), upload.partFile(), offset, typeChecked, durationSeconds, upload.updatedAt());
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Moves the file into place, then records the asset and ends the upload in one statement
+    private Mono<MediaAsset> finish(Upload upload, Path part, MessageDigest digest) {
+        return Mono.fromCallable(() -> {
+                    try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                        channel.truncate(upload.length());
+                        channel.force(true);
+                    }
+                    String sha256 = HexFormat.of().formatHex(digest.digest());
+                    if (upload.expectedSha256() != null && !upload.expectedSha256().equals(sha256)) {
+                        throw new InvalidUploadException(HttpStatus.UNPROCESSABLE_ENTITY, "Dosya sağlaması (sha256) eşleşmiyor.");
+                    }
+                    if (VIDEO_TYPES.contains(upload.contentType()) && upload.durationSeconds() == null) {
+                        throw new InvalidUploadException(HttpStatus.UNPROCESSABLE_ENTITY, "Video süresi okunamadı.");
+                    }
+                    MediaAsset asset = new MediaAsset(upload.id(), upload.advertiserId(), upload.contentType(), upload.length(),
+                            sha256, upload.durationSeconds(), Instant.now());
+                    Files.createDirectories(mediaCatalogService.mediaDir());
+                    Files.move(part, mediaCatalogService.pathOf(asset), StandardCopyOption.ATOMIC_MOVE);
+                    return asset;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(asset -> mediaCatalogService.store(asset)
+                        .switchIfEmpty(Mono.error(() -> new UploadRejectedException(HttpStatus.NOT_FOUND, "Yükleme iptal edildi.")))
+                        // Put the file back so the last chunk can be resent, or drop it if the upload is gone
+                        .onErrorResume(e -> Mono.fromRunnable(() -> unstore(asset, part, e))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.error(e))))
+                .doOnNext(asset -> {
+                    checkpoints.invalidate(upload.id());
+                    log.info("Stored media {} ({} bytes, {}) for advertiser {}", asset.id(), asset.size(), asset.contentType(), asset.advertiserId());
+                });
+    }
+
+    private void unstore(MediaAsset asset, Path part, Throwable cause) {
+        Path stored = mediaCatalogService.pathOf(asset);
+        if (cause instanceof UploadRejectedException) {
+            deleteQuietly(stored);
+            return;
+        }
+        try {
+            Files.move(stored, part, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not return {} to {}", stored, part, e);
+        }
+    }
+
+    private void checkDuration(double seconds) {
+        if (seconds < minVideoDuration || seconds > maxVideoDuration) {
+            throw new InvalidUploadException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Video süresi " + minVideoDuration + "-" + maxVideoDuration + " saniye olmalıdır.");
+        }
+    }
+
+    // Every replica runs this; the delete decides which one removes each file
+    Mono<Void> expireAbandoned() {
+        return mediaUploadRepository.deleteIdleSince(Instant.now().minus(sessionTtl))
+                .concatMap(upload -> Mono.fromRunnable(() -> {
+                    checkpoints.invalidate(upload.id());
+                    deleteQuietly(partOf(upload));
+                    log.info("Expired abandoned upload {} at {} of {} bytes", upload.id(), upload.offset(), upload.length());
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    private Path partOf(Upload upload) {
+        return uploadDir.resolve(upload.partFile());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be checkpointed", e);
+        }
+    }
+
+    private void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close upload channel", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    // Shared only by copy, so an aborted chunk leaves it untouched
+    private record Checkpoint(long offset, MessageDigest digest) {
+    }
+
+    public record ChunkResult(long offset, MediaAsset asset) {
+    }
+
+    /**
+     * An upload broke a limit or a protocol rule; carries the status to answer with.
+     */
+    public static class UploadRejectedException extends RuntimeException {
+
+        private final HttpStatus status;
+
+        public UploadRejectedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+
+    // The stored bytes themselves are unacceptable; the upload is cancelled
+    private static class InvalidUploadException extends UploadRejectedException {
+
+        InvalidUploadException(HttpStatus status, String message) {
+            super(status, message);
+        }
+    }
+
+    @Override
+    public void start() {
+        cleanupTimer = Flux.interval(Duration.ofMinutes(1), Duration.ofMinutes(1), Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> expireAbandoned()
+                        .onErrorResume(e -> {
+                            log.error("Upload cleanup failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = cleanupTimer;
+        if (timer != null) {
+            timer.dispose();
+            cleanupTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return cleanupTimer != null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.cursorraffle.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work on a dedicated bounded pool so a burst of logins never
+ * stalls the Netty event loop. When both the pool and its admission queue
+ * are full the call fails fast with {@link HashingSaturatedException}.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejections;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:256}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Time spent computing password hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.password.hash")
+                .description("Time spent computing password hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("auth.password.hash.rejected")
+                .description("Hash requests rejected because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", queue, BlockingQueue::size)
+                .description("Hash requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return Mono.just(false);
+        }
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> Mono<T> submit(Timer timer, Supplier<T> work) {
+        return Mono.create(sink -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        sink.success(timer.record(work));
+                    } catch (RuntimeException e) {
+                        sink.error(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejections.increment();
+                sink.error(new HashingSaturatedException());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Signals that the hashing pool cannot take more work right now.
+     */
+    public static class HashingSaturatedException extends RuntimeException {
+        public HashingSaturatedException() {
+            super("Password hashing capacity exhausted", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.TicketTallyRepository;
+import com.cursorraffle.backend.service.WeightedTicketPool.Winner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side weighted raffle draws.
+ * <p>
+ * The ticket pool is built at draw time from the sprint's stored tallies,
+ * so a draw sees the tickets every replica has flushed and survives
+ * restarts. Rows are read in {@code user_id} order, which fixes the pool's
+ * layout: drawing the same sprint again with the seed a result carries,
+ * over the same tickets, yields the same winners.
+ */
+@Slf4j
+@Service
+public class RaffleDrawService {
+
+    public static final String RAFFLE_DRAWN = "raffle-drawn";
+
+    private final TicketTallyRepository ticketTallyRepository;
+    private final ServerEventService serverEventService;
+    private final int expectedEntries;
+    private final SecureRandom seeds = new SecureRandom();
+
+    public RaffleDrawService(TicketTallyRepository ticketTallyRepository,
+                             ServerEventService serverEventService,
+                             @Value("${app.raffle.expected-entries:1024}") int expectedEntries) {
+        this.ticketTallyRepository = ticketTallyRepository;
+        this.serverEventService = serverEventService;
+        this.expectedEntries = expectedEntries;
+    }
+
+    /**
+     * Draws {@code winners} distinct users from the sprint's stored tickets.
+     * A null {@code seed} picks a fresh random one, which is returned for
+     * audit. Fails with {@link NoTicketsException} when the sprint has none.
+     */
+    public Mono<DrawResult> draw(String sprintId, int winners, Long seed) {
+        long effectiveSeed = seed != null ? seed : seeds.nextLong();
+        return ticketTallyRepository.findBySprint(sprintId)
+                .reduce(new WeightedTicketPool(expectedEntries), (pool, row) -> {
+                    pool.add(row.userId(), row.tickets());
+                    return pool;
+                })
+                .flatMap(pool -> {
+                    if (pool.size() == 0) {
+                        return Mono.error(new NoTicketsException(sprintId));
+                    }
+                    Winner[] picked = pool.draw(winners, effectiveSeed);
+                    DrawResult result = new DrawResult(sprintId, effectiveSeed, pool.size(), pool.totalWeight(),
+                            Arrays.asList(picked), Instant.now());
+                    log.info("Raffle draw for sprint {} with seed {}: {} winners from {} entries ({} tickets)",
+                            sprintId, effectiveSeed, result.winners().size(), result.entries(), result.totalTickets());
+                    serverEventService.publish(RAFFLE_DRAWN, Map.of(
+                            "sprintId", sprintId,
+                            "seed", String.valueOf(effectiveSeed),
+                            "winners", result.winners()));
+                    return Mono.just(result);
+                });
+    }
+
+    public record DrawResult(String sprintId, long seed, int entries, long totalTickets,
+                             List<Winner> winners, Instant drawnAt) {
+    }
+
+    public static class NoTicketsException extends RuntimeException {
+        public NoTicketsException(String sprintId) {
+            super("No tickets stored for sprint " + sprintId, null, false, false);
+        }
+    }
+}
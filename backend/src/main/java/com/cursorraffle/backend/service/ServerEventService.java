@@ -0,0 +1,134 @@
+package com.cursorraffle.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Map;
+
+/**
+ * Multiplexed server event stream: time ticks plus typed domain events
+ * (sprint boundaries, sponsor changes, analytics deltas).
+ * <p>
+ * Domain events carry an SSE id and are retained in a bounded replay buffer,
+ * so a client reconnecting with {@code Last-Event-ID} receives only what it
+ * missed. Ids are {@code <instance>-<sequence>}, where the instance part is
+ * random per process: each replica has its own buffer, so only ids this
+ * process issued can be replayed. For any other id (another replica, a
+ * restart, or a gap older than the buffer) the client gets a
+ * {@code resync} event and should refetch over REST. A client too slow to
+ * keep up gets {@code resync} too, and the stream ends so it reconnects.
+ * <p>
+ * {@link #publish} only queues the event; ids are assigned, frames encoded
+ * and fanned out to clients on a dedicated thread, so publishers never wait
+ * on subscribers.
+ */
+@Slf4j
+@Service
+public class ServerEventService implements DisposableBean {
+
+    public static final String SPRINT_STARTED = "sprint-started";
+    public static final String SPRINT_ENDED = "sprint-ended";
+    public static final String SPONSOR_CHANGED = "sponsor-changed";
+    public static final String ANALYTICS_DELTA = "analytics-delta";
+    public static final String RESYNC = "resync";
+
+    private final TimeService timeService;
+    private final ObjectMapper objectMapper;
+    private final int replayCapacity;
+    private final Sinks.Many<Frame> events;
+    private final Scheduler emitter = Schedulers.newSingle("server-events");
+    private final String instance = Long.toHexString(new SecureRandom().nextLong() >>> 16);
+    // Written by the emitter thread only
+    private volatile long lastId;
+
+    public ServerEventService(TimeService timeService,
+                              ObjectMapper objectMapper,
+                              @Value("${app.events.replay-capacity:1024}") int replayCapacity) {
+        this.timeService = timeService;
+        this.objectMapper = objectMapper;
+        this.replayCapacity = replayCapacity;
+        this.events = Sinks.many().replay().limit(replayCapacity);
+    }
+
+    /**
+     * Publishes a domain event to every connected client. Returns at once;
+     * the frame is encoded once, on the event thread, and shared.
+     */
+    public void publish(String type, Object payload) {
+        emitter.schedule(() -> {
+            try {
+                long id = lastId + 1;
+                events.tryEmitNext(new Frame(id, encode(id, type, payload)));
+                // Only after the frame is in the buffer, so a client starting from lastId cannot skip it
+                lastId = id;
+            } catch (RuntimeException e) {
+                log.error("Could not publish {} event", type, e);
+            }
+        });
+    }
+
+    /**
+     * Live events for one client, replaying retained events after
+     * {@code lastEventId} first. Pass null for a fresh connection.
+     */
+    public Flux<byte[]> stream(String lastEventId) {
+        return Flux.defer(() -> {
+            long newest = lastId;
+            long oldestRetained = newest - replayCapacity + 1;
+            long requested = sequenceOf(lastEventId);
+            boolean replayable = requested >= 0 && requested >= oldestRetained - 1 && requested <= newest;
+            long after = replayable ? requested : newest;
+
+            Flux<byte[]> domainEvents = events.asFlux()
+                    .filter(frame -> frame.id() > after)
+                    .map(Frame::bytes);
+            Flux<byte[]> stream = Flux.merge(domainEvents, timeService.getServerTimeEventFrames());
+            if (lastEventId != null && !replayable) {
+                stream = stream.startWith(encode(newest, RESYNC, Map.of()));
+            }
+            // Dropping frames would leave the client silently behind; tell it to resync and reconnect instead
+            return stream.onBackpressureBuffer(replayCapacity)
+                    .onErrorResume(Exceptions::isOverflow, e -> Flux.just(encode(lastId, RESYNC, Map.of())));
+        });
+    }
+
+    // The sequence part of an id this process issued, or -1
+    private long sequenceOf(String eventId) {
+        if (eventId == null || !eventId.startsWith(instance + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(instance.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        emitter.dispose();
+    }
+
+    private byte[] encode(long id, String type, Object payload) {
+        try {
+            String data = objectMapper.writeValueAsString(payload);
+            return ("id:" + instance + "-" + id + "\nevent:" + type + "\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not encode " + type + " event", e);
+        }
+    }
+
+    private record Frame(long id, byte[] bytes) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+/**
+ * In-memory calendar of approved sponsorships answering "who is live at
+ * instant T for slot type X, ranked by bid" without touching the database.
+ * <p>
+ * Each slot type is indexed as sorted interval boundaries with a segment
+ * tree over the elementary segments between them. A sponsorship is stored,
+ * ranked by bid, in the O(log n) tree nodes that together cover its
+ * interval, so the index takes O(n log n) memory rather than a full copy of
+ * the live set per segment. A lookup is one binary search plus a merge of
+ * the ranked lists on one root-to-leaf path. Approvals are rare compared to
+ * lookups, so a change rebuilds only the affected type's index and swaps it
+ * in atomically; readers never lock.
+ * <p>
+ * Start and end dates are local times in {@code app.sprint.zone}, so "now"
+ * is taken in that zone too, whatever the JVM default.
+ */
+@Slf4j
+@Service
+public class SponsorCalendarService implements SmartLifecycle {
+
+    private static final Comparator<SponsorshipApplication> BY_BID = Comparator
+            .comparingDouble((SponsorshipApplication app) -> app.getBidAmount() == null ? 0d : app.getBidAmount())
+            .reversed()
+            .thenComparing(SponsorshipApplication::getId);
+
+    private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final Duration pruneInterval;
+    private final ZoneId zone;
+
+    private final Map<Long, SponsorshipApplication> approved = new ConcurrentHashMap<>();
+    private final Map<String, TypeIndex> indexes = new ConcurrentHashMap<>();
+    private volatile Disposable pruneTimer;
+
+    public SponsorCalendarService(SponsorshipApplicationRepository sponsorshipRepository,
+                                  @Value("${app.sponsorship.calendar-prune-interval:1m}") Duration pruneInterval,
+                                  @Value("${app.sprint.zone:Europe/Istanbul}") String zone) {
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.pruneInterval = pruneInterval;
+        this.zone = ZoneId.of(zone);
+    }
+
+    /**
+     * The current local time in the zone sponsorship dates are written in.
+     */
+    public LocalDateTime now() {
+        return LocalDateTime.now(zone);
+    }
+
+    /**
+     * Sponsorships of {@code type} live at {@code at}, highest bid first.
+     */
+    public List<SponsorshipApplication> liveAt(String type, LocalDateTime at) {
+        TypeIndex index = indexes.get(type);
+        return index == null ? List.of() : index.liveAt(key(at));
+    }
+
+    /**
+     * The winning (highest-bid) sponsorship of {@code type} at {@code at}.
+     */
+    public Optional<SponsorshipApplication> sponsorAt(String type, LocalDateTime at) {
+        List<SponsorshipApplication> live = liveAt(type, at);
+        return live.isEmpty() ? Optional.empty() : Optional.of(live.get(0));
+    }
+
+    /**
+     * Advertisers with a sponsorship of any type live at {@code at}.
+     */
+    public Set<Long> liveAdvertiserIds(Instant at) {
+        Set<Long> advertiserIds = new HashSet<>();
+        long key = key(LocalDateTime.ofInstant(at, zone));
+        for (TypeIndex index : indexes.values()) {
+            for (SponsorshipApplication app : index.liveAt(key)) {
+                if (app.getAdvertiserId() != null) {
+                    advertiserIds.add(app.getAdvertiserId());
+                }
+            }
+        }
+        return advertiserIds;
+    }
+
+    /**
+     * Applies a status change: approved rows enter the calendar, anything
+     * else leaves it.
+     */
+    public void update(SponsorshipApplication application) {
+        if (application.getId() == null) {
+            return;
+        }
+        SponsorshipApplication previous = "APPROVED".equals(application.getStatus())
+                ? approved.put(application.getId(), application)
+                : approved.remove(application.getId());
+        Set<String> types = new HashSet<>();
+        types.add(application.getType());
+        if (previous != null) {
+            types.add(previous.getType());
+        }
+        types.forEach(this::rebuild);
+    }
+
+    /**
+     * Drops sponsorships whose end date has passed so the index does not grow
+     * with history.
+     */
+    public void pruneExpired() {
+        LocalDateTime now = now();
+        Set<String> touched = new HashSet<>();
+        approved.values().removeIf(app -> {
+            boolean expired = app.getEndDate() != null && !app.getEndDate().isAfter(now);
+            if (expired) {
+                touched.add(app.getType());
+            }
+            return expired;
+        });
+        touched.forEach(this::rebuild);
+    }
+
+    private synchronized void rebuild(String type) {
+        if (type == null) {
+            return;
+        }
+        List<SponsorshipApplication> ofType = approved.values().stream()
+                .filter(app -> type.equals(app.getType()))
+                .toList();
+        if (ofType.isEmpty()) {
+            indexes.remove(type);
+        } else {
+            indexes.put(type, TypeIndex.build(ofType));
+        }
+    }
+
+    private static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long startKey(SponsorshipApplication app) {
+        return app.getStartDate() == null ? Long.MIN_VALUE : key(app.getStartDate());
+    }
+
+    private static long endKey(SponsorshipApplication app) {
+        return app.getEndDate() == null ? Long.MAX_VALUE : key(app.getEndDate());
+    }
+
+    /**
+     * Immutable index for one slot type. Segment {@code i} covers
+     * {@code [boundaries[i], boundaries[i + 1])}; leaf {@code i} of the
+     * segment tree sits at {@code nodes[segmentCount + i]} and node
+     * {@code p} covers the leaves of its children {@code 2p} and
+     * {@code 2p + 1}. Each node holds, ranked by bid, the sponsorships that
+     * span all of its leaves but not all of its parent's.
+     */
+    private static final class TypeIndex {
+
+        private static final SponsorshipApplication[] NONE = new SponsorshipApplication[0];
+
+        private final long[] boundaries;
+        private final SponsorshipApplication[][] nodes;
+
+        private TypeIndex(long[] boundaries, SponsorshipApplication[][] nodes) {
+            this.boundaries = boundaries;
+            this.nodes = nodes;
+        }
+
+        static TypeIndex build(List<SponsorshipApplication> applications) {
+            long[] boundaries = applications.stream()
+                    .flatMapToLong(app -> LongStream.of(startKey(app), endKey(app)))
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            int segmentCount = boundaries.length;
+            List<List<SponsorshipApplication>> lists = new ArrayList<>(Collections.nCopies(2 * segmentCount, null));
+
+            // Adding in bid order leaves every node's list ranked
+            List<SponsorshipApplication> byBid = new ArrayList<>(applications);
+            byBid.sort(BY_BID);
+            for (SponsorshipApplication app : byBid) {
+                int from = Arrays.binarySearch(boundaries, startKey(app)) + segmentCount;
+                int to = Arrays.binarySearch(boundaries, endKey(app)) + segmentCount;
+                for (; from < to; from >>= 1, to >>= 1) {
+                    if ((from & 1) == 1) {
+                        add(lists, from++, app);
+                    }
+                    if ((to & 1) == 1) {
+                        add(lists, --to, app);
+                    }
+                }
+            }
+            SponsorshipApplication[][] nodes = new SponsorshipApplication[lists.size()][];
+            for (int node = 0; node < nodes.length; node++) {
+                List<SponsorshipApplication> list = lists.get(node);
+                nodes[node] = list == null ? NONE : list.toArray(NONE);
+            }
+            return new TypeIndex(boundaries, nodes);
+        }
+
+        private static void add(List<List<SponsorshipApplication>> lists, int node, SponsorshipApplication app) {
+            List<SponsorshipApplication> list = lists.get(node);
+            if (list == null) {
+                list = new ArrayList<>(2);
+                lists.set(node, list);
+            }
+            list.add(app);
+        }
+
+        List<SponsorshipApplication> liveAt(long at) {
+            int position = Arrays.binarySearch(boundaries, at);
+            int segment = position >= 0 ? position : -position - 2;
+            if (segment < 0) {
+                return List.of();
+            }
+            List<SponsorshipApplication> live = new ArrayList<>();
+            int runs = 0;
+            for (int node = segment + boundaries.length; node > 0; node >>= 1) {
+                if (nodes[node].length > 0) {
+                    live.addAll(Arrays.asList(nodes[node]));
+                    runs++;
+                }
+            }
+            // Each node's run is already ranked; the sort only merges them
+            if (runs > 1) {
+                live.sort(BY_BID);
+            }
+            return Collections.unmodifiableList(live);
+        }
+    }
+
+    @Override
+    public void start() {
+        sponsorshipRepository.findByStatus("APPROVED")
+                .doOnNext(app -> approved.put(app.getId(), app))
+                .then()
+                .doOnSuccess(done -> {
+                    approved.values().stream().map(SponsorshipApplication::getType).distinct().forEach(this::rebuild);
+                    log.info("Sponsor calendar loaded with {} approved sponsorships", approved.size());
+                })
+                .subscribe(null, e -> log.warn("Could not load sponsor calendar", e));
+        pruneTimer = Flux.interval(pruneInterval, pruneInterval, Schedulers.parallel())
+                .subscribe(tick -> pruneExpired());
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = pruneTimer;
+        if (timer != null) {
+            timer.dispose();
+            pruneTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return pruneTimer != null;
+    }
+}
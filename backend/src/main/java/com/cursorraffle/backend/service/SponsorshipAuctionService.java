@@ -0,0 +1,333 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Sealed-bid auctions for sponsorship slots.
+ * <p>
+ * A slot is a (type, startDate) pair. Each slot has its own order book: a
+ * lock-free skip list ranked by bid amount, so concurrent bids on one slot
+ * never contend on a shared lock and bids on different slots never touch
+ * each other. Bids are not visible to other bidders. Auctions close
+ * {@code app.auction.close-lead} before the slot starts. Closing is decided
+ * from the database, not from the books: every replica looks for due slots
+ * that still have pending rows, including slots that fell due while no
+ * replica was running, and settles each in one locking statement, so only
+ * the first settler changes anything. The row's {@code version} rejects
+ * stale re-bids, and any bid saved while a slot is being settled.
+ * <p>
+ * The books serve the leading bid of open slots to admins. Each replica
+ * books the bids it receives as they arrive, and rebuilds every open book
+ * from the pending rows on each close check, so bids placed through other
+ * replicas show up within {@code app.auction.close-check-interval}.
+ * <p>
+ * Slot start dates are local times in {@code app.sprint.zone}, so close
+ * times are compared with the current time in that zone, whatever the JVM
+ * default.
+ */
+@Slf4j
+@Service
+public class SponsorshipAuctionService implements SmartLifecycle {
+
+    private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final SponsorshipStatusService sponsorshipStatusService;
+    private final Duration closeLead;
+    private final Duration closeCheckInterval;
+    private final ZoneId zone;
+
+    private final Map<SlotKey, OrderBook> books = new ConcurrentHashMap<>();
+    private volatile Disposable closeTimer;
+
+    public SponsorshipAuctionService(SponsorshipApplicationRepository sponsorshipRepository,
+                                     SponsorshipStatusService sponsorshipStatusService,
+                                     @Value("${app.auction.close-lead:1h}") Duration closeLead,
+                                     @Value("${app.auction.close-check-interval:10s}") Duration closeCheckInterval,
+                                     @Value("${app.sprint.zone:Europe/Istanbul}") String zone) {
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.sponsorshipStatusService = sponsorshipStatusService;
+        this.closeLead = closeLead;
+        this.closeCheckInterval = closeCheckInterval;
+        this.zone = ZoneId.of(zone);
+    }
+
+    /**
+     * Places or replaces the bid of a pending application in its slot's book.
+     * Returns false when the slot's auction has already closed.
+     */
+    public boolean placeBid(SponsorshipApplication application) {
+        OrderBook book = book(application);
+        return book != null && book.place(application) != null;
+    }
+
+    /**
+     * Books a changed bid of a stored application, then runs {@code save}.
+     * When the auction has closed nothing is saved and the result fails with
+     * {@link AuctionClosedException}; when the save fails, the application's
+     * previous bid is put back, so the book never holds an amount the
+     * database rejected.
+     */
+    public Mono<SponsorshipApplication> rebid(SponsorshipApplication application, Mono<SponsorshipApplication> save) {
+        return Mono.defer(() -> {
+            OrderBook book = book(application);
+            OrderBook.Placement placement = book == null ? null : book.place(application);
+            if (placement == null) {
+                return Mono.error(new AuctionClosedException());
+            }
+            return save.doOnError(e -> book.restore(placement));
+        });
+    }
+
+    private OrderBook book(SponsorshipApplication application) {
+        SlotKey slot = SlotKey.of(application);
+        if (slot == null || application.getId() == null || !isOpen(application)) {
+            return null;
+        }
+        return books.computeIfAbsent(slot, key -> new OrderBook(key.startDate().minus(closeLead)));
+    }
+
+    /**
+     * Drops a bid that is no longer pending, e.g. after manual review.
+     */
+    public void withdraw(SponsorshipApplication application) {
+        SlotKey slot = SlotKey.of(application);
+        OrderBook book = slot == null ? null : books.get(slot);
+        if (book != null) {
+            book.remove(application.getId());
+        }
+    }
+
+    public boolean isOpen(SponsorshipApplication application) {
+        SlotKey slot = SlotKey.of(application);
+        return slot != null && now().isBefore(slot.startDate().minus(closeLead));
+    }
+
+    /**
+     * Current leading bid of an open slot, for admin views only. It is the
+     * bid settlement would pick if the slot closed now.
+     */
+    public Optional<Bid> leadingBid(String type, LocalDateTime startDate) {
+        OrderBook book = books.get(new SlotKey(type, startDate));
+        return book == null ? Optional.empty() : book.leader();
+    }
+
+    /**
+     * Replaces the books of open slots with ones built from the pending rows,
+     * picking up bids placed or withdrawn on other replicas. A bid booked
+     * here while the rows were read is already saved, so the next refresh
+     * has it.
+     */
+    Mono<Void> refreshBooks() {
+        return sponsorshipRepository.findByStatus("PENDING")
+                .filter(this::isOpen)
+                .collect(Collectors.groupingBy(SlotKey::of))
+                .doOnNext(pending -> {
+                    books.entrySet().removeIf(entry -> !pending.containsKey(entry.getKey()) && !entry.getValue().isExpired(now()));
+                    pending.forEach((slot, applications) -> books.put(slot, OrderBook.of(slot.startDate().minus(closeLead), applications)));
+                })
+                .then();
+    }
+
+    /**
+     * Settles every slot whose close time has passed and that still has
+     * pending bids in the database. A slot's book is dropped only once its
+     * settlement has committed; a failed slot keeps its book and pending
+     * rows and is retried on the next check. Books of slots with nothing
+     * left pending were settled by another replica and are dropped too.
+     */
+    public Flux<SponsorshipApplication> closeDueAuctions() {
+        LocalDateTime now = now();
+        books.values().forEach(book -> {
+            if (book.isExpired(now)) {
+                book.close();
+            }
+        });
+        return sponsorshipRepository.findPendingSlotsStartingBy(now.plus(closeLead))
+                .map(slot -> new SlotKey(slot.type(), slot.startDate()))
+                .collectList()
+                .flatMapMany(due -> {
+                    books.entrySet().removeIf(entry -> entry.getValue().isExpired(now) && !due.contains(entry.getKey()));
+                    return Flux.fromIterable(due).concatMap(this::settle);
+                });
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(zone);
+    }
+
+    private Flux<SponsorshipApplication> settle(SlotKey slot) {
+        return sponsorshipStatusService.settleSlot(slot.type(), slot.startDate())
+                .collectList()
+                .doOnNext(settled -> {
+                    OrderBook book = books.remove(slot);
+                    log.info("Closed auction for slot {} ({} bids settled, {} booked here)",
+                            slot, settled.size(), book == null ? 0 : book.size());
+                })
+                .flatMapIterable(settled -> settled)
+                .onErrorResume(e -> {
+                    log.error("Settling slot {} failed, retrying on the next check", slot, e);
+                    return Flux.empty();
+                });
+    }
+
+    public record Bid(Long applicationId, Long advertiserId, double amount, LocalDateTime createdAt) {
+    }
+
+    public static class AuctionClosedException extends RuntimeException {
+        public AuctionClosedException() {
+            super("Auction closed", null, false, false);
+        }
+    }
+
+    private record SlotKey(String type, LocalDateTime startDate) {
+
+        static SlotKey of(SponsorshipApplication application) {
+            if (application.getType() == null || application.getStartDate() == null) {
+                return null;
+            }
+            return new SlotKey(application.getType(), application.getStartDate());
+        }
+    }
+
+    /**
+     * One slot's bids. Highest amount first; ties go to the earlier
+     * application, then the lower id, the same order as
+     * {@code StatusUpdateRepository.SETTLE_SLOT}.
+     */
+    static final class OrderBook {
+
+        private static final Comparator<Bid> RANKING = Comparator
+                .comparingDouble(Bid::amount).reversed()
+                .thenComparing(Bid::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Bid::applicationId);
+
+        private final LocalDateTime closesAt;
+        private final ConcurrentSkipListSet<Bid> bids = new ConcurrentSkipListSet<>(RANKING);
+        private final Map<Long, Bid> byApplication = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        OrderBook(LocalDateTime closesAt) {
+            this.closesAt = closesAt;
+        }
+
+        static OrderBook of(LocalDateTime closesAt, List<SponsorshipApplication> applications) {
+            OrderBook book = new OrderBook(closesAt);
+            applications.forEach(book::place);
+            return book;
+        }
+
+        /**
+         * Places or replaces the application's bid. Returns null when the
+         * book is closed.
+         */
+        Placement place(SponsorshipApplication application) {
+            if (closed) {
+                return null;
+            }
+            double amount = application.getBidAmount() == null ? 0d : application.getBidAmount();
+            Bid bid = new Bid(application.getId(), application.getAdvertiserId(), amount, application.getCreatedAt());
+            Bid[] replaced = new Bid[1];
+            // compute() locks only this application's bin, so replacing one bid never blocks other bidders
+            byApplication.compute(application.getId(), (id, previous) -> {
+                if (previous != null) {
+                    bids.remove(previous);
+                }
+                replaced[0] = previous;
+                bids.add(bid);
+                return bid;
+            });
+            return new Placement(bid, replaced[0]);
+        }
+
+        // Undoes a placement unless a later bid of the same application already replaced it
+        void restore(Placement placement) {
+            byApplication.computeIfPresent(placement.placed().applicationId(), (id, current) -> {
+                if (current != placement.placed()) {
+                    return current;
+                }
+                bids.remove(current);
+                if (placement.previous() != null) {
+                    bids.add(placement.previous());
+                }
+                return placement.previous();
+            });
+        }
+
+        void remove(Long applicationId) {
+            byApplication.computeIfPresent(applicationId, (id, previous) -> {
+                bids.remove(previous);
+                return null;
+            });
+        }
+
+        int size() {
+            return bids.size();
+        }
+
+        Optional<Bid> leader() {
+            return bids.isEmpty() ? Optional.empty() : Optional.of(bids.first());
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return !now.isBefore(closesAt);
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        record Placement(Bid placed, Bid previous) {
+        }
+    }
+
+    /**
+     * Checks for due slots right away, so slots that fell due while the
+     * service was down are settled, and then rebuilds the open books; both
+     * repeat on every close check.
+     */
+    @Override
+    public void start() {
+        closeTimer = Flux.interval(Duration.ZERO, closeCheckInterval, Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> closeDueAuctions()
+                        .then(refreshBooks())
+                        .onErrorResume(e -> {
+                            log.error("Closing due auctions or refreshing books failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = closeTimer;
+        if (timer != null) {
+            timer.dispose();
+            closeTimer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return closeTimer != null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.repository.SponsorshipApplicationRepository;
+import com.cursorraffle.backend.repository.StatusUpdateRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Single place where a sponsorship application changes status, so the
+ * manual admin path and the auction engine keep every derived view
+ * (rollups, feed snapshot, calendar, event stream) in step.
+ * <p>
+ * Saves are version-checked; a concurrent change surfaces as
+ * {@link org.springframework.dao.OptimisticLockingFailureException}.
+ */
+@Service
+public class SponsorshipStatusService {
+
+    private final SponsorshipApplicationRepository sponsorshipRepository;
+    private final StatusUpdateRepository statusUpdateRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final ActiveSponsorshipSnapshotService activeSponsorshipSnapshotService;
+    private final SponsorCalendarService sponsorCalendarService;
+    private final ServerEventService serverEventService;
+
+    public SponsorshipStatusService(SponsorshipApplicationRepository sponsorshipRepository,
+                                    StatusUpdateRepository statusUpdateRepository,
+                                    AnalyticsRollupService analyticsRollupService,
+                                    ActiveSponsorshipSnapshotService activeSponsorshipSnapshotService,
+                                    SponsorCalendarService sponsorCalendarService,
+                                    ServerEventService serverEventService) {
+        this.sponsorshipRepository = sponsorshipRepository;
+        this.statusUpdateRepository = statusUpdateRepository;
+        this.analyticsRollupService = analyticsRollupService;
+        this.activeSponsorshipSnapshotService = activeSponsorshipSnapshotService;
+        this.sponsorCalendarService = sponsorCalendarService;
+        this.serverEventService = serverEventService;
+    }
+
+    /**
+     * Loads the application and moves it to {@code status}.
+     * Completes empty when the application does not exist.
+     */
+    public Mono<SponsorshipApplication> transition(Long applicationId, String status) {
+        return sponsorshipRepository.findById(applicationId)
+                .flatMap(application -> transition(application, status));
+    }
+
+    /**
+     * Moves an already loaded application to {@code status}. The save fails
+     * if the row changed since {@code application} was read.
+     */
+    public Mono<SponsorshipApplication> transition(SponsorshipApplication application, String status) {
+        String previousStatus = application.getStatus();
+        application.setStatus(status);
+        application.setUpdatedAt(LocalDateTime.now());
+        return sponsorshipRepository.save(application)
+                .doOnNext(saved -> {
+                    if (!status.equals(previousStatus)) {
+                        statusChanged(saved, previousStatus);
+                    }
+                });
+    }
+
+    /**
+     * Moves every listed application to {@code status} in one statement and
+     * emits the updated rows. Unknown ids are skipped.
+     */
+    public Flux<SponsorshipApplication> transitionAll(Collection<Long> applicationIds, String status) {
+        return statusUpdateRepository.setSponsorshipsStatus(applicationIds, status)
+                .doOnNext(change -> {
+                    if (!status.equals(change.previousStatus())) {
+                        statusChanged(change.application(), change.previousStatus());
+                    }
+                })
+                .map(StatusUpdateRepository.StatusChange::application);
+    }
+
+    /**
+     * Settles a closed auction slot in the database and emits the
+     * applications that changed status.
+     */
+    public Flux<SponsorshipApplication> settleSlot(String type, LocalDateTime startDate) {
+        return statusUpdateRepository.settleSlot(type, startDate)
+                .doOnNext(change -> statusChanged(change.application(), change.previousStatus()))
+                .map(StatusUpdateRepository.StatusChange::application);
+    }
+
+    private void statusChanged(SponsorshipApplication saved, String previousStatus) {
+        analyticsRollupService.applicationStatusChanged(previousStatus, saved.getStatus());
+        activeSponsorshipSnapshotService.invalidate();
+        sponsorCalendarService.update(saved);
+        serverEventService.publish(ServerEventService.SPONSOR_CHANGED, saved);
+        serverEventService.publish(ServerEventService.ANALYTICS_DELTA, Map.of(
+                "metric", "applicationsByStatus",
+                "from", String.valueOf(previousStatus),
+                "to", saved.getStatus()));
+    }
+}
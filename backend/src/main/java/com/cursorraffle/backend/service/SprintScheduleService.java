@@ -0,0 +1,139 @@
+package com.cursorraffle.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Daily sprint calendar derived from {@code app.sprint.*}.
+ * Sprints start at fixed local times and last a fixed duration; the sprint
+ * id is its local start time, e.g. {@code 2026-10-17T17:00}. Boundaries are
+ * published as {@code sprint-started}/{@code sprint-ended} events.
+ * Sprints are assumed not to overlap.
+ */
+@Slf4j
+@Service
+public class SprintScheduleService implements SmartLifecycle {
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    private final ServerEventService serverEventService;
+    private final List<LocalTime> startTimes;
+    private final Duration duration;
+    private final ZoneId zone;
+    private volatile boolean running;
+    private volatile Disposable nextBoundary;
+
+    public SprintScheduleService(ServerEventService serverEventService,
+                                 @Value("${app.sprint.start-times:17:00}") List<String> startTimes,
+                                 @Value("${app.sprint.duration:60m}") Duration duration,
+                                 @Value("${app.sprint.zone:Europe/Istanbul}") String zone) {
+        this.serverEventService = serverEventService;
+        this.startTimes = startTimes.stream().map(String::trim).map(LocalTime::parse).sorted().toList();
+        this.duration = duration;
+        this.zone = ZoneId.of(zone);
+    }
+
+    /**
+     * The sprint running at {@code instant}, if any.
+     */
+    public Optional<Sprint> sprintAt(Instant instant) {
+        return candidates(instant).stream()
+                .filter(sprint -> !instant.isBefore(sprint.start()) && instant.isBefore(sprint.end()))
+                .findFirst();
+    }
+
+    public Optional<Sprint> currentSprint() {
+        return sprintAt(Instant.now());
+    }
+
+    /**
+     * The first sprint starting strictly after {@code instant}.
+     */
+    public Sprint nextSprint(Instant instant) {
+        return candidates(instant).stream()
+                .filter(sprint -> sprint.start().isAfter(instant))
+                .min(Comparator.comparing(Sprint::start))
+                .orElseThrow();
+    }
+
+    // Sprints starting yesterday, today and tomorrow cover any lookup around midnight
+    private List<Sprint> candidates(Instant instant) {
+        LocalDate today = instant.atZone(zone).toLocalDate();
+        List<Sprint> sprints = new ArrayList<>();
+        for (LocalDate day : List.of(today.minusDays(1), today, today.plusDays(1))) {
+            for (LocalTime time : startTimes) {
+                Instant start = day.atTime(time).atZone(zone).toInstant();
+                sprints.add(new Sprint(day.atTime(time).format(ID_FORMAT), start, start.plus(duration)));
+            }
+        }
+        return sprints;
+    }
+
+    private void scheduleNextBoundary(Instant notBefore) {
+        // Timers can fire a little early; never re-evaluate a boundary we already passed
+        Instant now = Instant.now().isBefore(notBefore) ? notBefore : Instant.now();
+        Optional<Sprint> current = sprintAt(now);
+        Sprint upcoming = nextSprint(now);
+        Instant boundary = current.map(Sprint::end).filter(end -> end.isBefore(upcoming.start())).orElse(upcoming.start());
+        Duration delay = Duration.between(now, boundary);
+
+        nextBoundary = Mono.delay(delay.isNegative() ? Duration.ZERO : delay, Schedulers.parallel())
+                .subscribe(tick -> {
+                    current.filter(sprint -> !sprint.end().isAfter(boundary))
+                            .ifPresent(sprint -> serverEventService.publish(ServerEventService.SPRINT_ENDED, sprint.toEvent()));
+                    if (!upcoming.start().isAfter(boundary)) {
+                        serverEventService.publish(ServerEventService.SPRINT_STARTED, upcoming.toEvent());
+                    }
+                    if (running) {
+                        scheduleNextBoundary(boundary);
+                    }
+                }, e -> log.error("Sprint boundary timer failed", e));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        scheduleNextBoundary(Instant.now());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Disposable current = nextBoundary;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public record Sprint(String id, Instant start, Instant end) {
+
+        Map<String, Object> toEvent() {
+            return Map.of(
+                    "sprintId", id,
+                    "startsAt", start.toString(),
+                    "endsAt", end.toString());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.TicketTallyRepository;
+import com.cursorraffle.backend.repository.TicketTallyRepository.TicketDelta;
+import com.cursorraffle.backend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-sprint raffle ticket tallies.
+ * <p>
+ * Watched ads add {@code tickets-per-view x multiplier} to striped
+ * {@link LongAdder} counters, so a burst at sprint start never contends on
+ * a row or a lock. A single flusher moves the deltas to the database in
+ * multi-row upserts and keeps the totals the upserts return. After every
+ * flush it reloads each sprint's top-K from {@code user_ticket_tallies}, so
+ * every replica serves the same leaderboard within one flush interval.
+ * Raffle draws read the stored rows, not this pod's counters.
+ * Leaderboard reads and the rank-change feed never touch the table.
+ */
+@Slf4j
+@Service
+public class TicketTallyService extends WriteBehindService<TicketDelta> {
+
+    private final TicketTallyRepository ticketTallyRepository;
+    private final UserRepository userRepository;
+    private final SprintScheduleService sprintScheduleService;
+    private final ObjectMapper objectMapper;
+    private final long ticketsPerView;
+    private final int leaderboardSize;
+    private final int retainedSprints;
+    private final Cache<Long, Double> multipliers;
+
+    private final NavigableMap<String, SprintTally> tallies = new ConcurrentSkipListMap<>();
+    private final Sinks.Many<byte[]> rankChanges = Sinks.many().replay().latest();
+
+    public TicketTallyService(TicketTallyRepository ticketTallyRepository,
+                              UserRepository userRepository,
+                              SprintScheduleService sprintScheduleService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.raffle.tickets-per-view:1}") long ticketsPerView,
+                              @Value("${app.raffle.leaderboard-size:100}") int leaderboardSize,
+                              @Value("${app.raffle.tally.batch-size:500}") int batchSize,
+                              @Value("${app.raffle.retained-sprints:8}") int retainedSprints,
+                              @Value("${app.raffle.tally.flush-interval:1s}") Duration flushInterval,
+                              @Value("${app.raffle.tally.max-attempts:10}") int maxAttempts,
+                              @Value("${app.raffle.multiplier-cache-ttl:5m}") Duration multiplierCacheTtl) {
+        super("Ticket tally", batchSize, flushInterval, flushInterval.multipliedBy(10), maxAttempts, meterRegistry);
+        this.ticketTallyRepository = ticketTallyRepository;
+        this.userRepository = userRepository;
+        this.sprintScheduleService = sprintScheduleService;
+        this.objectMapper = objectMapper;
+        this.ticketsPerView = ticketsPerView;
+        this.leaderboardSize = leaderboardSize;
+        this.retainedSprints = retainedSprints;
+        this.multipliers = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(multiplierCacheTtl)
+                .build();
+    }
+
+    /**
+     * Credits {@code views} watched ads to the user in the running sprint.
+     * Completes empty when no sprint is running.
+     */
+    public Mono<Award> recordViews(long userId, long views) {
+        Optional<String> sprintId = sprintScheduleService.currentSprint().map(SprintScheduleService.Sprint::id);
+        if (sprintId.isEmpty() || views <= 0) {
+            return Mono.empty();
+        }
+        return multiplierOf(userId).map(multiplier -> {
+            long tickets = (long) Math.floor(ticketsPerView * views * multiplier);
+            SprintTally tally = tallyOf(sprintId.get());
+            if (tickets > 0) {
+                tally.pending.computeIfAbsent(userId, id -> new LongAdder()).add(tickets);
+            }
+            return new Award(sprintId.get(), tickets, multiplier, tally.ticketsOf(userId));
+        });
+    }
+
+    /**
+     * Tickets the user holds in the sprint, including deltas not yet flushed.
+     */
+    public long ticketsOf(String sprintId, long userId) {
+        SprintTally tally = tallies.get(sprintId);
+        return tally == null ? 0 : tally.ticketsOf(userId);
+    }
+
+    /**
+     * Top-K of the sprint as stored at the last flush, best first.
+     */
+    public List<Standing> leaderboard(String sprintId, int limit) {
+        SprintTally tally = tallies.get(sprintId);
+        if (tally == null) {
+            return List.of();
+        }
+        List<Standing> board = tally.leaderboard;
+        return board.subList(0, Math.min(limit, board.size()));
+    }
+
+    /**
+     * Pre-encoded {@code rank-changed} SSE frames. A new subscriber first
+     * receives the most recent frame; slow subscribers skip to the newest.
+     */
+    public Flux<byte[]> rankChangeFrames() {
+        return rankChanges.asFlux().onBackpressureLatest();
+    }
+
+    private Mono<Double> multiplierOf(long userId) {
+        Double cached = multipliers.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userRepository.findById(userId)
+                .map(user -> user.getRaffleMultiplier() == null || user.getRaffleMultiplier() <= 0 ? 1d : user.getRaffleMultiplier())
+                .defaultIfEmpty(1d)
+                .doOnNext(multiplier -> multipliers.put(userId, multiplier));
+    }
+
+    private SprintTally tallyOf(String sprintId) {
+        SprintTally tally = tallies.get(sprintId);
+        if (tally != null) {
+            return tally;
+        }
+        tally = tallies.computeIfAbsent(sprintId, SprintTally::new);
+        while (tallies.size() > retainedSprints) {
+            Map.Entry<String, SprintTally> oldest = tallies.firstEntry();
+            if (oldest == null || oldest.getValue().hasPending()) {
+                // Keep unflushed sprints until their deltas are stored
+                break;
+            }
+            tallies.remove(oldest.getKey(), oldest.getValue());
+        }
+        return tally;
+    }
+
+    @Override
+    protected List<TicketDelta> drain() {
+        List<TicketDelta> deltas = new ArrayList<>();
+        tallies.values().forEach(tally -> tally.pending.forEach((userId, adder) -> {
+            // sum-then-subtract instead of sumThenReset, which can lose concurrent adds
+            long tickets = adder.sum();
+            if (tickets > 0) {
+                adder.add(-tickets);
+                deltas.add(new TicketDelta(userId, tally.sprintId, tickets));
+            }
+        }));
+        return deltas;
+    }
+
+    // Runs on the single flusher only
+    @Override
+    protected Mono<Long> write(List<TicketDelta> batch) {
+        return ticketTallyRepository.upsertAll(batch)
+                .doOnNext(stored -> {
+                    SprintTally tally = tallies.get(stored.sprintId());
+                    if (tally != null) {
+                        tally.totals.put(stored.userId(), stored.tickets());
+                    }
+                })
+                .count();
+    }
+
+    @Override
+    protected boolean hasPending() {
+        return tallies.values().stream().anyMatch(SprintTally::hasPending);
+    }
+
+    // Other replicas write the same rows, so the board comes from the table, not from this pod's deltas
+    @Override
+    protected Mono<Void> flushed() {
+        sprintScheduleService.currentSprint().ifPresent(sprint -> tallyOf(sprint.id()));
+        return Flux.fromIterable(tallies.values())
+                .concatMap(tally -> ticketTallyRepository.findTopBySprint(tally.sprintId, leaderboardSize)
+                        .map(row -> new Standing(row.userId(), row.tickets()))
+                        .collectList()
+                        .doOnNext(board -> publish(tally, board)))
+                .then();
+    }
+
+    private void publish(SprintTally tally, List<Standing> current) {
+        current.forEach(standing -> tally.totals.merge(standing.userId(), standing.tickets(), Math::max));
+        List<Standing> previous = tally.leaderboard;
+        if (current.equals(previous)) {
+            return;
+        }
+        tally.leaderboard = List.copyOf(current);
+
+        Map<Long, Integer> previousRanks = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            previousRanks.put(previous.get(i).userId(), i + 1);
+        }
+        List<Map<String, Object>> changes = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            Integer before = previousRanks.remove(current.get(i).userId());
+            if (before == null || before != i + 1) {
+                changes.add(Map.of("userId", current.get(i).userId(), "from", before == null ? 0 : before, "to", i + 1));
+            }
+        }
+        previousRanks.forEach((userId, before) -> changes.add(Map.of("userId", userId, "from", before, "to", 0)));
+        rankChanges.tryEmitNext(encode(Map.of(
+                "sprintId", tally.sprintId,
+                "changes", changes,
+                "leaderboard", current)));
+    }
+
+    private byte[] encode(Object payload) {
+        try {
+            return ("event:rank-changed\ndata:" + objectMapper.writeValueAsString(payload) + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not encode rank change", e);
+        }
+    }
+
+    /**
+     * One sprint's counters. {@code pending} is written by request threads;
+     * everything else is owned by the flusher.
+     */
+    private static final class SprintTally {
+
+        private final String sprintId;
+        private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+        private final Map<Long, Long> totals = new ConcurrentHashMap<>();
+        private volatile List<Standing> leaderboard = List.of();
+
+        SprintTally(String sprintId) {
+            this.sprintId = sprintId;
+        }
+
+        long ticketsOf(long userId) {
+            LongAdder adder = pending.get(userId);
+            return totals.getOrDefault(userId, 0L) + (adder == null ? 0 : adder.sum());
+        }
+
+        boolean hasPending() {
+            return pending.values().stream().anyMatch(adder -> adder.sum() != 0);
+        }
+    }
+
+    public record Standing(long userId, long tickets) {
+    }
+
+    public record Award(String sprintId, long tickets, double multiplier, long total) {
+    }
+
+    // Restores before the first flush so the flusher stays the only writer of totals
+    @Override
+    protected Mono<Void> beforeFirstFlush() {
+        return Mono.justOrEmpty(sprintScheduleService.currentSprint())
+                .flatMap(sprint -> ticketTallyRepository.findBySprint(sprint.id())
+                        .collectList()
+                        .doOnNext(rows -> {
+                            SprintTally tally = tallyOf(sprint.id());
+                            rows.forEach(row -> tally.totals.put(row.userId(), row.tickets()));
+                            log.info("Restored {} ticket tallies for sprint {}", rows.size(), sprint.id());
+                        }))
+                .then(Mono.defer(this::flushed))
+                .onErrorResume(e -> {
+                    log.warn("Could not restore ticket tallies", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
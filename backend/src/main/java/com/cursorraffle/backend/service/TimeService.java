@@ -1,22 +1,115 @@
 package com.cursorraffle.backend.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Application-wide server time broadcast.
+ * A single timer ticks once per second and encodes the SSE frame once; every
+ * connected client receives the same bytes. Slow clients keep only the most
+ * recent frame instead of buffering a backlog.
+ */
 @Service
-public class TimeService {
+public class TimeService implements SmartLifecycle {
+
+    private final Sinks.Many<Tick> ticks = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Timer emitTimer;
+    private final Counter droppedFrames;
+    private volatile Disposable ticker;
+
+    public TimeService(MeterRegistry meterRegistry) {
+        this.emitTimer = Timer.builder("time.stream.emit")
+                .description("Time to hand one tick to every connected client")
+                .register(meterRegistry);
+        this.droppedFrames = Counter.builder("time.stream.dropped")
+                .description("Frames replaced by a newer one before a slow client read them")
+                .register(meterRegistry);
+        Gauge.builder("time.stream.connections", connections, AtomicInteger::get)
+                .description("Clients currently subscribed to the server time stream")
+                .register(meterRegistry);
+    }
 
     /**
      * Emits the current server time every second.
-     * Shared flux to avoid creating a new timer for every client.
+     * All subscribers share the same timer.
      */
     public Flux<Instant> getServerTimeStream() {
-        return Flux.interval(Duration.ofSeconds(1))
-                .map(tick -> Instant.now())
-                .share(); // Broadcast to all subscribers
+        return subscribe().map(Tick::instant);
+    }
+
+    /**
+     * Pre-encoded {@code text/event-stream} frames, one per tick, shared by all clients.
+     */
+    public Flux<byte[]> getServerTimeFrames() {
+        return subscribe().map(Tick::frame);
+    }
+
+    /**
+     * The same ticks framed as {@code event:tick} for the multiplexed event stream.
+     */
+    public Flux<byte[]> getServerTimeEventFrames() {
+        return subscribe().map(Tick::eventFrame);
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private Flux<Tick> subscribe() {
+        return ticks.asFlux()
+                .onBackpressureBuffer(1, dropped -> droppedFrames.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .doOnSubscribe(subscription -> connections.incrementAndGet())
+                .doFinally(signal -> connections.decrementAndGet());
+    }
+
+    // Package-private so benchmarks can drive ticks without the timer
+    void tick() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        String data = "{\"iso\":\"" + now + "\",\"epoch\":\"" + now.toEpochMilli() + "\"}";
+        ticks.tryEmitNext(new Tick(now,
+                ("data:" + data + "\n\n").getBytes(StandardCharsets.UTF_8),
+                ("event:tick\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8)));
+        emitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void start() {
+        ticker = Flux.interval(Duration.ofSeconds(1), Schedulers.single())
+                .subscribe(tick -> tick());
     }
-}
 
+    @Override
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+            ticker = null;
+        }
+        ticks.tryEmitComplete();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ticker != null;
+    }
+
+    private record Tick(Instant instant, byte[] frame, byte[] eventFrame) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.cursorraffle.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Issues HS256 access and refresh tokens signed with
+ * {@code spring.security.jwt.secret}. The principal's role travels in the
+ * {@code roles} claim so authorization never needs a repository lookup.
+ */
+@Service
+public class TokenService {
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TYPE_CLAIM = "typ";
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
+
+    private final JwtEncoder jwtEncoder;
+    private final ReactiveJwtDecoder refreshDecoder;
+    private final Duration accessExpiration;
+    private final Duration refreshExpiration;
+
+    public TokenService(JwtEncoder jwtEncoder,
+                        SecretKey jwtSigningKey,
+                        @Value("${spring.security.jwt.expiration:86400000}") long accessExpirationMillis,
+                        @Value("${spring.security.jwt.refresh-expiration:604800000}") long refreshExpirationMillis) {
+        this.jwtEncoder = jwtEncoder;
+        this.refreshDecoder = decoder(jwtSigningKey, REFRESH_TYPE);
+        this.accessExpiration = Duration.ofMillis(accessExpirationMillis);
+        this.refreshExpiration = Duration.ofMillis(refreshExpirationMillis);
+    }
+
+    /**
+     * Builds a decoder that accepts only tokens of the given type, so a
+     * refresh token can never be replayed as an access token and vice versa.
+     */
+    public static ReactiveJwtDecoder decoder(SecretKey key, String type) {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(),
+                new JwtClaimValidator<String>(TYPE_CLAIM, type::equals)));
+        return decoder;
+    }
+
+    public String issueAccessToken(String role, Long id, String email) {
+        return issue(role, id, email, ACCESS_TYPE, accessExpiration);
+    }
+
+    public String issueRefreshToken(String role, Long id, String email) {
+        return issue(role, id, email, REFRESH_TYPE, refreshExpiration);
+    }
+
+    /**
+     * Verifies a refresh token and mints a new access token for its principal.
+     * Completes empty when the token is invalid or expired.
+     */
+    public Mono<String> refreshAccessToken(String refreshToken) {
+        return refreshDecoder.decode(refreshToken)
+                .map(jwt -> {
+                    List<String> roles = jwt.getClaimAsStringList(ROLES_CLAIM);
+                    String role = roles == null || roles.isEmpty() ? "user" : roles.get(0).toLowerCase(Locale.ROOT);
+                    return issueAccessToken(role, Long.valueOf(jwt.getSubject()), jwt.getClaimAsString("email"));
+                })
+                .onErrorResume(JwtException.class, e -> Mono.empty());
+    }
+
+    private String issue(String role, Long id, String email, String type, Duration ttl) {
+        Instant now = Instant.now();
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
+                .subject(String.valueOf(id))
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(ROLES_CLAIM, List.of(role.toUpperCase(Locale.ROOT)))
+                .claim(TYPE_CLAIM, type);
+        if (email != null) {
+            claims.claim("email", email);
+        }
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims.build())).getTokenValue();
+    }
+}
@@ -0,0 +1,273 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.ViewSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Server-side ad view sessions enforcing {@code app.ad.min-view-duration}.
+ * <p>
+ * Starting a view issues a session id; completing it is accepted once, and
+ * only by the same user after the minimum duration. Sessions live in
+ * {@code ad_view_sessions}, one row per user, so a view started on one
+ * replica completes on any other, and starting a new view replaces the
+ * user's open one. Abandoned sessions are expired by a hashed timing wheel
+ * on the replica that opened them: each user id is appended to the bucket
+ * of the tick the session expires in, and every tick deletes one bucket's
+ * expired rows in a single statement, so expiry is O(1) per session with no
+ * per-session timer and no table scan. Each replica tracks at most
+ * {@code app.ad.view-session.max-open} sessions.
+ */
+@Slf4j
+@Service
+public class ViewSessionService implements SmartLifecycle {
+
+    private final ViewSessionRepository viewSessionRepository;
+    private final long minViewNanos;
+    private final Duration tick;
+    private final int maxOpen;
+
+    // Sessions this replica opened that its wheel has not yet expired
+    private final AtomicInteger open = new AtomicInteger();
+    private final TimingWheel wheel;
+    private final Counter started;
+    private final Counter rejected;
+    private final Counter expired;
+    private final Counter accepted;
+    private final Counter tooEarly;
+    private final Counter unknown;
+    private volatile Disposable ticker;
+
+    public ViewSessionService(ViewSessionRepository viewSessionRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ad.min-view-duration:15}") long minViewSeconds,
+                              @Value("${app.ad.view-session.ttl:5m}") Duration ttl,
+                              @Value("${app.ad.view-session.tick:1s}") Duration tick,
+                              @Value("${app.ad.view-session.max-open:500000}") int maxOpen) {
+        this.viewSessionRepository = viewSessionRepository;
+        this.minViewNanos = Duration.ofSeconds(minViewSeconds).toNanos();
+        this.tick = tick;
+        this.maxOpen = maxOpen;
+        this.wheel = new TimingWheel((int) Math.max(2, ttl.toNanos() / tick.toNanos() + 1));
+
+        this.started = Counter.builder("ad.view.sessions.started")
+                .description("View sessions opened")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ad.view.sessions.rejected")
+                .description("View sessions refused because this replica reached max-open")
+                .register(meterRegistry);
+        this.expired = Counter.builder("ad.view.sessions.expired")
+                .description("View sessions abandoned and deleted by the timing wheel")
+                .register(meterRegistry);
+        this.accepted = completions(meterRegistry, "accepted");
+        this.tooEarly = completions(meterRegistry, "too_early");
+        this.unknown = completions(meterRegistry, "unknown");
+        Gauge.builder("ad.view.sessions.open", open, AtomicInteger::get)
+                .description("View sessions this replica opened and has not yet expired")
+                .register(meterRegistry);
+    }
+
+    private static Counter completions(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("ad.view.sessions.completed")
+                .description("Complete-view calls by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a view session, replacing the user's open one if any. Empty when
+     * this replica already tracks too many sessions.
+     */
+    public Mono<Session> start(long userId, Long advertiserId) {
+        while (true) {
+            int current = open.get();
+            if (current >= maxOpen) {
+                rejected.increment();
+                return Mono.empty();
+            }
+            if (open.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        Session session = new Session(ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE), userId, advertiserId);
+        return viewSessionRepository.open(userId, session.id(), advertiserId)
+                .doOnSuccess(done -> {
+                    wheel.schedule(userId);
+                    started.increment();
+                })
+                .doOnError(e -> open.decrementAndGet())
+                .thenReturn(session);
+    }
+
+    /**
+     * Completes a session. A session is consumed by its first accepted
+     * completion, so a view can never be claimed twice.
+     */
+    public Mono<Completion> complete(long userId, long sessionId) {
+        return viewSessionRepository.complete(userId, sessionId, getMinViewDuration(), getSessionTtl())
+                .map(found -> {
+                    Session session = new Session(sessionId, userId, found.advertiserId());
+                    if (!found.completed()) {
+                        tooEarly.increment();
+                        return new Completion(Outcome.TOO_EARLY, session, Math.max(1, minViewNanos - found.age().toNanos()));
+                    }
+                    accepted.increment();
+                    return new Completion(Outcome.ACCEPTED, session, 0);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    unknown.increment();
+                    return new Completion(Outcome.UNKNOWN, null, 0);
+                }));
+    }
+
+    public Duration getMinViewDuration() {
+        return Duration.ofNanos(minViewNanos);
+    }
+
+    public Duration getSessionTtl() {
+        return tick.multipliedBy(wheel.size() - 1L);
+    }
+
+    public int getOpenCount() {
+        return open.get();
+    }
+
+    // Rows completed elsewhere or restarted since are left alone by the delete
+    private Mono<Void> expireDue() {
+        List<Long> due = new ArrayList<>();
+        wheel.advance(due::add);
+        if (due.isEmpty()) {
+            return Mono.empty();
+        }
+        open.addAndGet(-due.size());
+        return viewSessionRepository.expire(due, getSessionTtl())
+                .doOnNext(expired::increment)
+                .then();
+    }
+
+    public record Session(long id, long userId, Long advertiserId) {
+    }
+
+    public record Completion(Outcome outcome, Session session, long remainingNanos) {
+    }
+
+    public enum Outcome {
+        ACCEPTED, TOO_EARLY, UNKNOWN
+    }
+
+    /**
+     * Ring of buckets, one per tick. An id goes into the bucket the cursor
+     * reaches one full turn later, so it is looked at exactly once.
+     * Each bucket is striped and backed by a growable {@code long[]}, which
+     * keeps inserts cheap and contention low when a sprint start opens many
+     * sessions in the same tick; drained arrays are reused.
+     */
+    static final class TimingWheel {
+
+        private final Bucket[][] buckets;
+        private final int stripeMask;
+        private volatile int cursor;
+
+        TimingWheel(int size) {
+            int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+            this.stripeMask = stripes - 1;
+            this.buckets = new Bucket[size][stripes];
+            for (Bucket[] bucket : buckets) {
+                for (int i = 0; i < stripes; i++) {
+                    bucket[i] = new Bucket();
+                }
+            }
+        }
+
+        int size() {
+            return buckets.length;
+        }
+
+        void schedule(long id) {
+            // The bucket just behind the cursor is reached last
+            int slot = Math.floorMod(cursor - 1, buckets.length);
+            buckets[slot][(int) (id ^ (id >>> 32)) & stripeMask].add(id);
+        }
+
+        // Single caller: the ticker. Drains before moving the cursor: while this
+        // slot drains, schedule() still writes to the one behind it
+        void advance(LongConsumer onExpired) {
+            int slot = cursor;
+            for (Bucket stripe : buckets[slot]) {
+                stripe.drain(onExpired);
+            }
+            cursor = (slot + 1) % buckets.length;
+        }
+
+        private static final class Bucket {
+
+            private static final int SHRINK_ABOVE = 4096;
+
+            private long[] ids = new long[16];
+            private int size;
+
+            synchronized void add(long id) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = id;
+            }
+
+            // Writers only reach this bucket once the cursor has moved past it, after the drain;
+            // the lock is contended only by a writer that read the cursor a full turn late
+            synchronized void drain(LongConsumer onExpired) {
+                for (int i = 0; i < size; i++) {
+                    onExpired.accept(ids[i]);
+                }
+                size = 0;
+                if (ids.length > SHRINK_ABOVE) {
+                    // Give back the memory of a burst once it has expired
+                    ids = new long[16];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        ticker = Flux.interval(tick, tick, Schedulers.single())
+                .onBackpressureDrop()
+                .concatMap(t -> expireDue()
+                        .onErrorResume(e -> {
+                            log.error("View session expiry failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ticker != null;
+    }
+}
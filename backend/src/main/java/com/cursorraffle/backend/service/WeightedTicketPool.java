@@ -0,0 +1,221 @@
+package com.cursorraffle.backend.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Ticket weights of one sprint, held in primitive arrays.
+ * <p>
+ * Entries are users; an entry's weight is its ticket count after
+ * multipliers. Weights live in a Fenwick tree, so adding tickets and
+ * sampling proportionally to weight are both O(log n) and the pool never
+ * boxes a value. Users are mapped to slots by an open-addressing
+ * {@code long -> int} table. A pool costs about 24 bytes per entry plus
+ * 12 bytes per hash slot (at most 3/4 full), regardless of how many draws
+ * run against it.
+ * <p>
+ * Not thread-safe; {@link RaffleDrawService} builds one per draw.
+ */
+public final class WeightedTicketPool {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] userIds;
+    private long[] weights;
+    private long[] tree; // 1-based Fenwick tree over weights
+    private int size;
+    private long totalWeight;
+
+    private long[] slotKeys;
+    private int[] slotValues;
+    private int slotMask;
+
+    public WeightedTicketPool() {
+        this(1024);
+    }
+
+    public WeightedTicketPool(int expectedEntries) {
+        int capacity = Math.max(16, expectedEntries);
+        userIds = new long[capacity];
+        weights = new long[capacity];
+        tree = new long[capacity + 1];
+        allocateSlots(tableSizeFor(capacity));
+    }
+
+    /**
+     * Adds {@code tickets} to the user's weight, creating the entry on first use.
+     */
+    public void add(long userId, long tickets) {
+        if (tickets < 0) {
+            throw new IllegalArgumentException("tickets must not be negative");
+        }
+        if (userId == EMPTY) {
+            throw new IllegalArgumentException("Unsupported user id " + userId);
+        }
+        if (tickets == 0) {
+            return;
+        }
+        int index = indexOf(userId);
+        if (index < 0) {
+            index = append(userId);
+        }
+        weights[index] += tickets;
+        update(index, tickets);
+        totalWeight = Math.addExact(totalWeight, tickets);
+    }
+
+    public long weightOf(long userId) {
+        int index = indexOf(userId);
+        return index < 0 ? 0 : weights[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Draws up to {@code count} distinct users, each pick weighted by tickets
+     * among the users not yet picked. The same pool contents and seed always
+     * produce the same winners in the same order.
+     * <p>
+     * Picked entries are zeroed while the draw runs and restored afterwards,
+     * so a draw needs O(count) extra memory, not a copy of the pool.
+     */
+    public Winner[] draw(int count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        // Entries only exist once they hold a ticket, so every entry is drawable
+        int picks = Math.min(count, size);
+        Winner[] winners = new Winner[picks];
+        int[] pickedIndexes = new int[picks];
+        long remaining = totalWeight;
+        try {
+            for (int i = 0; i < picks; i++) {
+                int index = find(random.nextLong(remaining));
+                long weight = weights[index];
+                winners[i] = new Winner(userIds[index], weight);
+                pickedIndexes[i] = index;
+                update(index, -weight);
+                remaining -= weight;
+            }
+        } finally {
+            for (int i = 0; i < picks; i++) {
+                if (winners[i] != null) {
+                    update(pickedIndexes[i], weights[pickedIndexes[i]]);
+                }
+            }
+        }
+        return winners;
+    }
+
+    // Smallest index whose prefix sum exceeds target, by binary lifting over the tree
+    private int find(long target) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    private void update(int index, long delta) {
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int append(long userId) {
+        if (size == userIds.length) {
+            grow();
+        }
+        int index = size++;
+        userIds[index] = userId;
+        weights[index] = 0;
+        // The new node covers (index + 1 - lowbit, index + 1]; seed it from the entries below it
+        int node = index + 1;
+        long sum = 0;
+        for (int child = node - 1, lower = node - (node & -node); child > lower; child -= child & -child) {
+            sum += tree[child];
+        }
+        tree[node] = sum;
+        putSlot(userId, index);
+        return index;
+    }
+
+    private void grow() {
+        int capacity = userIds.length * 2;
+        userIds = Arrays.copyOf(userIds, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        // Fenwick nodes depend only on their own index, so existing nodes stay valid
+        tree = Arrays.copyOf(tree, capacity + 1);
+    }
+
+    private int indexOf(long userId) {
+        for (int slot = mix(userId) & slotMask; ; slot = (slot + 1) & slotMask) {
+            long key = slotKeys[slot];
+            if (key == userId) {
+                return slotValues[slot];
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private void putSlot(long userId, int index) {
+        if (size > (slotMask + 1) * 3L / 4) {
+            rehash((slotMask + 1) * 2);
+        }
+        int slot = mix(userId) & slotMask;
+        while (slotKeys[slot] != EMPTY) {
+            slot = (slot + 1) & slotMask;
+        }
+        slotKeys[slot] = userId;
+        slotValues[slot] = index;
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = slotKeys;
+        int[] oldValues = slotValues;
+        allocateSlots(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & slotMask;
+                while (slotKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & slotMask;
+                }
+                slotKeys[slot] = oldKeys[i];
+                slotValues[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocateSlots(int tableSize) {
+        slotKeys = new long[tableSize];
+        slotValues = new int[tableSize];
+        Arrays.fill(slotKeys, EMPTY);
+        slotMask = tableSize - 1;
+    }
+
+    // Power of two keeping the table at most 3/4 full
+    private static int tableSizeFor(int entries) {
+        return Integer.highestOneBit(Math.max(16, (int) Math.min(1 << 30, entries * 4L / 3 + 1)) - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public record Winner(long userId, long tickets) {
+    }
+}
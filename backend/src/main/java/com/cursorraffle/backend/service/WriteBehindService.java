@@ -0,0 +1,186 @@
+package com.cursorraffle.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base of the write-behind buffers. Request threads add to in-memory
+ * counters; a single flusher drains them on a timer and writes the deltas
+ * in batches. A failed batch is retried as-is on the following flushes,
+ * ahead of new deltas; after {@code maxAttempts} failed writes it is logged
+ * and dropped, so one row the database keeps rejecting cannot hold the
+ * buffer full. On shutdown the timer stops and the flusher drains whatever
+ * is left, within {@code shutdownTimeout}.
+ *
+ * @param <T> one row of deltas
+ */
+@Slf4j
+public abstract class WriteBehindService<T> implements SmartLifecycle {
+
+    private final String name;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+    private final int maxAttempts;
+    private final Counter droppedRows;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final Queue<FailedBatch<T>> failed = new ConcurrentLinkedQueue<>();
+    private volatile Disposable flushTimer;
+
+    protected WriteBehindService(String name, int batchSize, Duration flushInterval, Duration shutdownTimeout,
+                                 int maxAttempts, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.droppedRows = Counter.builder("write.behind.rows.dropped")
+                .description("Buffered rows given up on after max-attempts failed writes")
+                .tag("buffer", name)
+                .register(meterRegistry);
+    }
+
+    /** Takes every buffered delta out of the counters. */
+    protected abstract List<T> drain();
+
+    /** Stores one batch; emits the number of rows written. */
+    protected abstract Mono<Long> write(List<T> batch);
+
+    /** Called on the flusher once {@code batch} is stored. */
+    protected void written(List<T> batch) {
+    }
+
+    /** Called on the flusher when {@code batch} is given up on. */
+    protected void dropped(List<T> batch) {
+    }
+
+    /** True while any delta is in the counters. */
+    protected abstract boolean hasPending();
+
+    /** Runs on the flusher after every flush that ran; a failure is logged and the flush still counts. */
+    protected Mono<Void> flushed() {
+        return Mono.empty();
+    }
+
+    /** Runs once before the first scheduled flush. */
+    protected Mono<Void> beforeFirstFlush() {
+        return Mono.empty();
+    }
+
+    /**
+     * Drains the buffer into the database. Only one flush runs at a time;
+     * concurrent callers get an empty result and the next trigger picks up
+     * whatever arrived in the meantime.
+     */
+    public Mono<Long> flush() {
+        return Mono.defer(() -> {
+            if (!flushing.compareAndSet(false, true)) {
+                return Mono.just(0L);
+            }
+            List<FailedBatch<T>> retries = new ArrayList<>();
+            for (FailedBatch<T> retry = failed.poll(); retry != null; retry = failed.poll()) {
+                retries.add(retry);
+            }
+            return Flux.fromIterable(retries)
+                    .concatWith(Flux.fromIterable(drain())
+                            .buffer(batchSize)
+                            .map(batch -> new FailedBatch<>(batch, 0)))
+                    .concatMap(attempt -> write(attempt.batch())
+                            .doOnSuccess(rows -> written(attempt.batch()))
+                            .onErrorResume(e -> {
+                                failed(attempt.batch(), attempt.attempts() + 1, e);
+                                return Mono.just(0L);
+                            }))
+                    .reduce(0L, Long::sum)
+                    .flatMap(rows -> flushed()
+                            .onErrorResume(e -> {
+                                log.warn("{} post-flush step failed", name, e);
+                                return Mono.empty();
+                            })
+                            .thenReturn(rows))
+                    .doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    private void failed(List<T> batch, int attempts, Throwable e) {
+        if (attempts < maxAttempts) {
+            log.warn("{} flush of {} rows failed (attempt {} of {}), retrying", name, batch.size(), attempts, maxAttempts, e);
+            failed.add(new FailedBatch<>(batch, attempts));
+            return;
+        }
+        // The log line is the dead letter: it carries every dropped row
+        log.error("{} flush of {} rows failed {} times, dropping {}", name, batch.size(), attempts, batch, e);
+        droppedRows.increment(batch.size());
+        dropped(batch);
+    }
+
+    protected boolean isFlushing() {
+        return flushing.get();
+    }
+
+    private boolean hasUnwritten() {
+        return !failed.isEmpty() || hasPending();
+    }
+
+    @Override
+    public void start() {
+        flushTimer = beforeFirstFlush()
+                .thenMany(Flux.interval(flushInterval, flushInterval, Schedulers.parallel()))
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable timer = flushTimer;
+        if (timer != null) {
+            timer.dispose();
+            flushTimer = null;
+        }
+        // Wait out any in-flight flush, then drain whatever is left
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while (hasUnwritten() && System.nanoTime() < deadline) {
+            Long written = flush().block(shutdownTimeout);
+            if (written == null || written == 0L) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (hasUnwritten()) {
+            log.warn("Shutting down with unflushed {} rows", name);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flushTimer != null;
+    }
+
+    /** Stop after the web server so in-flight requests are still buffered. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private record FailedBatch<T>(List<T> batch, int attempts) {
+    }
+}
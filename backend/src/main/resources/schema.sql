@@ -0,0 +1,58 @@
+CREATE TABLE IF NOT EXISTS ad_impression_counts (
+    advertiser_id BIGINT NOT NULL,
+    sprint_id VARCHAR(64) NOT NULL,
+    impressions BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (advertiser_id, sprint_id)
+);
+
+-- Optimistic locking for concurrent bids and status changes
+ALTER TABLE IF EXISTS sponsorship_applications ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS user_ticket_tallies (
+    user_id BIGINT NOT NULL,
+    sprint_id VARCHAR(64) NOT NULL,
+    tickets BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (user_id, sprint_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_ticket_tallies_sprint ON user_ticket_tallies (sprint_id, tickets DESC);
+
+-- Per-user raffle multiplier; NULL counts as x1
+ALTER TABLE IF EXISTS users ADD COLUMN IF NOT EXISTS raffle_multiplier DOUBLE PRECISION;
+
+-- Resumable media uploads, resumable on any replica. Bytes live on the shared media volume
+CREATE TABLE IF NOT EXISTS media_uploads (
+    id VARCHAR(36) PRIMARY KEY,
+    advertiser_id BIGINT NOT NULL,
+    content_type VARCHAR(64) NOT NULL,
+    length BIGINT NOT NULL,
+    expected_sha256 VARCHAR(64),
+    part_file VARCHAR(255) NOT NULL,
+    upload_offset BIGINT NOT NULL DEFAULT 0,
+    type_checked BOOLEAN NOT NULL DEFAULT FALSE,
+    duration_seconds DOUBLE PRECISION,
+    locked_until TIMESTAMPTZ,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS media_assets (
+    id VARCHAR(36) PRIMARY KEY,
+    advertiser_id BIGINT NOT NULL,
+    content_type VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    duration_seconds DOUBLE PRECISION,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_media_assets_advertiser ON media_assets (advertiser_id);
+
+-- Open ad view sessions, at most one per user; starting a view replaces the user's open one
+CREATE TABLE IF NOT EXISTS ad_view_sessions (
+    user_id BIGINT PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    advertiser_id BIGINT,
+    started_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
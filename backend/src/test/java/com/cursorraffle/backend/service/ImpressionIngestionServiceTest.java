@@ -0,0 +1,140 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.repository.ImpressionCountRepository;
+import com.cursorraffle.backend.repository.ImpressionCountRepository.ImpressionDelta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImpressionIngestionServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int RECORDS_PER_THREAD = 20_000;
+    private static final int KEYS = 4;
+
+    private final Map<String, Long> written = new ConcurrentHashMap<>();
+    private ImpressionIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        // Batch size above the total, so only the test's own flush loop writes
+        ingestionService = new ImpressionIngestionService(new RecordingRepository(), new SimpleMeterRegistry(),
+                Integer.MAX_VALUE, 1_000_000, 100, Duration.ofSeconds(1), Duration.ofSeconds(1), 3);
+    }
+
+    /**
+     * Writers hit a few keys while a flusher drains, and retires, their
+     * counters as fast as it can. Every accepted view must be written
+     * exactly once and every reservation given back.
+     */
+    @Test
+    void concurrentFlushesNeitherLoseNorLeakViews() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    ingestionService.flush().block();
+                }
+                return null;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int t = thread;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                        // Sparse keys go idle between flushes and get retired
+                        assertThat(ingestionService.record((long) ((t + i) % KEYS), "sprint", 1 + i % 3)).isTrue();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            flusher.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        ingestionService.flush().block();
+
+        long expected = 0;
+        for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+            expected += 1 + i % 3;
+        }
+        assertThat(written.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(expected * THREADS);
+        assertThat(ingestionService.getBufferedCount()).isZero();
+    }
+
+    @Test
+    void requestLargerThanTheCapIsRefusedWithoutReserving() {
+        assertThat(ingestionService.record(1L, "sprint", 101)).isFalse();
+        assertThat(ingestionService.record(1L, "sprint", Long.MAX_VALUE)).isFalse();
+        assertThat(ingestionService.recordAll(List.of(
+                new ImpressionDelta(1L, "sprint", 60),
+                new ImpressionDelta(2L, "sprint", 60)))).isFalse();
+        assertThat(ingestionService.getBufferedCount()).isZero();
+    }
+
+    /**
+     * A row the database keeps rejecting is retried up to max-attempts and
+     * then dropped, giving its reservation back; other rows still land.
+     */
+    @Test
+    void rejectedRowIsDroppedAfterMaxAttempts() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImpressionIngestionService service = new ImpressionIngestionService(new RecordingRepository() {
+            @Override
+            public Mono<Long> upsertAll(List<ImpressionDelta> deltas) {
+                if (deltas.stream().anyMatch(delta -> delta.advertiserId() == 13L)) {
+                    return Mono.error(new IllegalStateException("violates foreign key"));
+                }
+                return super.upsertAll(deltas);
+            }
+        }, meterRegistry, Integer.MAX_VALUE, 1_000_000, 100, Duration.ofSeconds(1), Duration.ofSeconds(1), 3);
+
+        assertThat(service.record(13L, "sprint", 5)).isTrue();
+        service.flush().block();
+        service.flush().block();
+        assertThat(service.getBufferedCount()).isEqualTo(5);
+
+        // Third attempt gives up; rows buffered since go in their own batch
+        assertThat(service.record(1L, "sprint", 7)).isTrue();
+        service.flush().block();
+        assertThat(service.getBufferedCount()).isZero();
+        assertThat(written).containsExactly(Map.entry("1/sprint", 7L));
+        assertThat(meterRegistry.get("write.behind.rows.dropped").counter().count()).isEqualTo(1);
+    }
+
+    private class RecordingRepository extends ImpressionCountRepository {
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public Mono<Long> upsertAll(List<ImpressionDelta> deltas) {
+            deltas.forEach(delta -> written.merge(delta.advertiserId() + "/" + delta.sprintId(), delta.count(), Long::sum));
+            return Mono.just((long) deltas.size());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.cursorraffle.backend.service;
+
+import com.cursorraffle.backend.model.SponsorshipApplication;
+import com.cursorraffle.backend.service.SponsorshipAuctionService.AuctionClosedException;
+import com.cursorraffle.backend.service.SponsorshipAuctionService.Bid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SponsorshipAuctionServiceTest {
+
+    private static final String[] TYPES = {"DAILY", "WEEKLY", "MONTHLY"};
+    private static final int SLOTS = 3;
+    private static final int THREADS = 16;
+    private static final int BIDDERS_PER_THREAD = 50;
+    private static final int RAISES_PER_BIDDER = 20;
+
+    // At least ten hours away from the JVM default, so a clock read in the wrong zone shows
+    private static final ZoneId SPRINT_ZONE = ZoneId.systemDefault().getRules().getOffset(Instant.now()).getTotalSeconds() >= 0
+            ? ZoneOffset.ofHours(-12)
+            : ZoneOffset.ofHours(14);
+
+    private SponsorshipAuctionService auctionService;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        // The repository and status service are only used when auctions close
+        auctionService = new SponsorshipAuctionService(null, null, Duration.ofHours(1), Duration.ofSeconds(10),
+                SPRINT_ZONE.getId());
+        firstStart = LocalDateTime.now(SPRINT_ZONE).plusYears(1).withNano(0);
+    }
+
+    /**
+     * Every thread raises the bids of its own bidders while all threads hit
+     * the same few slots. Afterwards each book must hold exactly the last
+     * amount each bidder submitted, ranked highest first.
+     */
+    @Test
+    void concurrentBidsAreNeitherLostNorReordered() throws Exception {
+        List<List<SponsorshipApplication>> lastBids = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<SponsorshipApplication>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int t = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<SponsorshipApplication> last = new ArrayList<>();
+                    for (int b = 0; b < BIDDERS_PER_THREAD; b++) {
+                        long id = (long) t * BIDDERS_PER_THREAD + b;
+                        SponsorshipApplication bid = null;
+                        for (int raise = 0; raise < RAISES_PER_BIDDER; raise++) {
+                            // Distinct amounts, so the expected ranking has no ties
+                            bid = application(id, (int) (id % SLOTS), 1_000 + raise * 100_000 + id);
+                            assertThat(auctionService.placeBid(bid)).isTrue();
+                        }
+                        last.add(bid);
+                    }
+                    return last;
+                }));
+            }
+            start.countDown();
+            for (Future<List<SponsorshipApplication>> future : futures) {
+                lastBids.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int s = slot;
+            List<SponsorshipApplication> expected = lastBids.stream()
+                    .flatMap(List::stream)
+                    .filter(app -> app.getStartDate().equals(firstStart.plusDays(s)))
+                    .sorted(Comparator.comparingDouble(SponsorshipApplication::getBidAmount).reversed())
+                    .toList();
+            assertThat(drainRanking(expected.get(0).getType(), expected.get(0).getStartDate()))
+                    .extracting(Bid::applicationId, Bid::amount)
+                    .containsExactlyElementsOf(expected.stream()
+                            .map(app -> tuple(app.getId(), app.getBidAmount()))
+                            .toList());
+        }
+    }
+
+    @Test
+    void failedSaveRestoresThePreviousBid() {
+        SponsorshipApplication first = application(1L, 0, 500);
+        assertThat(auctionService.placeBid(first)).isTrue();
+
+        SponsorshipApplication raised = application(1L, 0, 900);
+        StepVerifier.create(auctionService.rebid(raised, Mono.error(new IllegalStateException("stale version"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(leader(first)).map(Bid::amount).contains(500d);
+    }
+
+    @Test
+    void closedAuctionRejectsBidWithoutSaving() {
+        SponsorshipApplication late = application(1L, 0, 500);
+        late.setStartDate(LocalDateTime.now(SPRINT_ZONE).plusMinutes(30));
+        AtomicBoolean saved = new AtomicBoolean();
+
+        StepVerifier.create(auctionService.rebid(late, Mono.fromCallable(() -> {
+                    saved.set(true);
+                    return late;
+                })))
+                .expectError(AuctionClosedException.class)
+                .verify();
+
+        assertThat(saved).isFalse();
+        assertThat(auctionService.placeBid(late)).isFalse();
+    }
+
+    /**
+     * Equal amounts rank like settlement does: earlier application first,
+     * then the lower id, however the bids arrived.
+     */
+    @Test
+    void tiesRankLikeSettlement() {
+        LocalDateTime created = LocalDateTime.now(SPRINT_ZONE).minusDays(1);
+        SponsorshipApplication laterApplied = application(1L, 0, 500);
+        laterApplied.setCreatedAt(created.plusMinutes(5));
+        SponsorshipApplication higherId = application(3L, 0, 500);
+        higherId.setCreatedAt(created);
+        SponsorshipApplication lowerId = application(2L, 0, 500);
+        lowerId.setCreatedAt(created);
+
+        auctionService.placeBid(lowerId);
+        auctionService.placeBid(laterApplied);
+        auctionService.placeBid(higherId);
+
+        assertThat(drainRanking(lowerId.getType(), lowerId.getStartDate()))
+                .extracting(Bid::applicationId)
+                .containsExactly(2L, 3L, 1L);
+    }
+
+    /**
+     * Start dates are sprint-zone local times: a slot two hours out there is
+     * open and one thirty minutes out is closed, wherever the JVM clock is.
+     */
+    @Test
+    void closeTimeFollowsTheSprintZone() {
+        SponsorshipApplication open = application(1L, 0, 500);
+        open.setStartDate(LocalDateTime.now(SPRINT_ZONE).plusHours(2));
+        SponsorshipApplication closed = application(2L, 1, 500);
+        closed.setStartDate(LocalDateTime.now(SPRINT_ZONE).plusMinutes(30));
+
+        assertThat(auctionService.isOpen(open)).isTrue();
+        assertThat(auctionService.isOpen(closed)).isFalse();
+    }
+
+    // Reads a slot's full ranking by withdrawing the leader until the book is empty
+    private List<Bid> drainRanking(String type, LocalDateTime startDate) {
+        List<Bid> ranking = new ArrayList<>();
+        Optional<Bid> leader;
+        while ((leader = auctionService.leadingBid(type, startDate)).isPresent()) {
+            ranking.add(leader.get());
+            SponsorshipApplication withdrawn = new SponsorshipApplication();
+            withdrawn.setId(leader.get().applicationId());
+            withdrawn.setType(type);
+            withdrawn.setStartDate(startDate);
+            auctionService.withdraw(withdrawn);
+        }
+        return ranking;
+    }
+
+    private Optional<Bid> leader(SponsorshipApplication application) {
+        return auctionService.leadingBid(application.getType(), application.getStartDate());
+    }
+
+    private SponsorshipApplication application(long id, int slot, double amount) {
+        SponsorshipApplication application = new SponsorshipApplication();
+        application.setId(id);
+        application.setAdvertiserId(id);
+        application.setType(TYPES[slot]);
+        application.setStartDate(firstStart.plusDays(slot));
+        application.setStatus("PENDING");
+        application.setBidAmount(amount);
+        return application;
+    }
+}